@@ -0,0 +1,81 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.arquillian.ce.api;
+
+import java.io.Serializable;
+
+/**
+ * Result of a command executed in a pod.
+ */
+public class ExecResult implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public static final int UNKNOWN_EXIT_CODE = -1;
+
+    private final String podName;
+    private final int exitCode;
+    private final String output;
+    private final String error;
+
+    public ExecResult(String podName, int exitCode, String output, String error) {
+        this.podName = podName;
+        this.exitCode = exitCode;
+        this.output = output;
+        this.error = error;
+    }
+
+    public String getPodName() {
+        return podName;
+    }
+
+    /**
+     * @return the command's exit code, {@link #UNKNOWN_EXIT_CODE} if it couldn't be determined
+     */
+    public int getExitCode() {
+        return exitCode;
+    }
+
+    /**
+     * @return collected stdout, null if it was streamed to a caller's sink
+     */
+    public String getOutput() {
+        return output;
+    }
+
+    /**
+     * @return collected stderr, null if it was streamed to a caller's sink
+     */
+    public String getError() {
+        return error;
+    }
+
+    public boolean isSuccess() {
+        return exitCode == 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ExecResult[pod=%s, exitCode=%s]", podName, exitCode);
+    }
+}
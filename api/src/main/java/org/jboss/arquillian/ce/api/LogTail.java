@@ -0,0 +1,78 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.arquillian.ce.api;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Follows logs of all pods matching labels, keeping only the last lines of each pod.
+ */
+public interface LogTail extends Closeable {
+    /**
+     * @return followed pods
+     */
+    Set<String> getPods();
+
+    /**
+     * @param podName the pod name
+     * @return the last buffered lines of the pod's log
+     */
+    List<String> getLines(String podName);
+
+    /**
+     * Wait for a log line of the pod to match the pattern.
+     * Lines still in the buffer are checked as well.
+     *
+     * @param podName the pod name
+     * @param pattern the pattern to find in a line
+     * @param timeout the timeout
+     * @param unit    the timeout unit
+     * @return the matching line
+     * @throws Exception on timeout, if the log ended without a match, or for any other error
+     */
+    String awaitMatch(String podName, Pattern pattern, long timeout, TimeUnit unit) throws Exception;
+
+    /**
+     * Wait for a log line of every followed pod to match the pattern.
+     *
+     * @param pattern the pattern to find in a line
+     * @param timeout the timeout, for all pods together
+     * @param unit    the timeout unit
+     * @return matching line per pod
+     * @throws Exception on timeout, if a log ended without a match, or for any other error
+     */
+    Map<String, String> awaitMatchInAll(Pattern pattern, long timeout, TimeUnit unit) throws Exception;
+
+    /**
+     * Start following new pods matching the labels, e.g. after a scale up.
+     *
+     * @throws Exception for any error
+     */
+    void refresh() throws Exception;
+}
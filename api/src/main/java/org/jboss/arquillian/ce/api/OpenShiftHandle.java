@@ -24,9 +24,11 @@
 package org.jboss.arquillian.ce.api;
 
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author <a href="mailto:ales.justin@jboss.org">Ales Justin</a>
@@ -42,6 +44,45 @@ public interface OpenShiftHandle {
 
     String exec(Map<String, String> labels, int waitSeconds, String... input) throws Exception;
 
+    /**
+     * Execute command in a pod, returning once the command completes.
+     *
+     * @param podName the pod name
+     * @param out     the stdout sink, may be null
+     * @param err     the stderr sink, may be null
+     * @param timeout the timeout
+     * @param unit    the timeout unit
+     * @param command the command
+     * @return exec result, with the exit code
+     * @throws Exception on timeout or for any other error
+     */
+    ExecResult exec(String podName, OutputStream out, OutputStream err, long timeout, TimeUnit unit, String... command) throws Exception;
+
+    /**
+     * Execute command in all pods matching labels, in parallel.
+     *
+     * @param labels  the labels for selecting the pods
+     * @param timeout the timeout
+     * @param unit    the timeout unit
+     * @param command the command
+     * @return exec result per pod, with the collected output
+     * @throws Exception on timeout or for any other error
+     */
+    Map<String, ExecResult> execInAll(Map<String, String> labels, long timeout, TimeUnit unit, String... command) throws Exception;
+
+    /**
+     * Execute shell command line in a pod, via a pooled long-lived shell.
+     * The shell's state, e.g. current dir, is kept between commands; stdin is not available.
+     *
+     * @param podName     the pod name
+     * @param commandLine the shell command line
+     * @param timeout     the timeout
+     * @param unit        the timeout unit
+     * @return exec result, with the exit code and collected output
+     * @throws Exception on timeout or for any other error
+     */
+    ExecResult shell(String podName, String commandLine, long timeout, TimeUnit unit) throws Exception;
+
     /**
      * Wait for ready pods.
      *
@@ -100,6 +141,16 @@ public interface OpenShiftHandle {
      */
     String getLog(String prefix, Map<String, String> labels) throws Exception;
 
+    /**
+     * Follow logs of all pods matching labels.
+     *
+     * @param labels   the labels for selecting the pods
+     * @param maxLines the number of last lines buffered per pod
+     * @return log tail, close it once done
+     * @throws Exception for any error
+     */
+    LogTail tailLog(Map<String, String> labels, int maxLines) throws Exception;
+
     /**
      * Get ready pods.
      *
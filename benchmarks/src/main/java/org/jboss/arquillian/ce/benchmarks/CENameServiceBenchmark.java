@@ -0,0 +1,95 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.arquillian.ce.benchmarks;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.fabric8.openshift.api.model.v2_6.Route;
+import io.fabric8.openshift.api.model.v2_6.RouteBuilder;
+import io.fabric8.openshift.api.model.v2_6.RouteList;
+import io.fabric8.openshift.api.model.v2_6.RouteListBuilder;
+import org.jboss.arquillian.ce.cube.dns.CENameService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * {@link CENameService#lookupAllHostAddr(String)} for route hosts and for other hosts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CENameServiceBenchmark {
+    @Param({"10", "1000"})
+    public int routes;
+
+    private CENameService nameService;
+    private String hit;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        List<Route> items = new ArrayList<>();
+        for (int i = 0; i < routes; i++) {
+            items.add(new RouteBuilder()
+                .withNewMetadata().withName("route-" + i).endMetadata()
+                .withNewSpec().withHost(String.format("route-%s-bench.router.default.svc", i)).endSpec()
+                .build());
+        }
+        RouteList routeList = new RouteListBuilder().withItems(items).build();
+        CENameService.setRoutes(routeList, "127.0.0.1");
+
+        nameService = new CENameService();
+        hit = String.format("route-%s-bench.router.default.svc", routes / 2);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        CENameService.setRoutes(null, null);
+    }
+
+    @Benchmark
+    public InetAddress[] lookupHit() throws Exception {
+        return nameService.lookupAllHostAddr(hit);
+    }
+
+    @Benchmark
+    public Object lookupMiss() {
+        try {
+            return nameService.lookupAllHostAddr("www.example.com");
+        } catch (UnknownHostException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.arquillian.ce.benchmarks;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.fabric8.kubernetes.clnt.v2_6.Config;
+import io.fabric8.kubernetes.clnt.v2_6.ConfigBuilder;
+import org.arquillian.cube.openshift.impl.client.CubeOpenShiftConfiguration;
+import org.arquillian.cube.openshift.impl.client.OpenShiftClient;
+import org.jboss.arquillian.ce.adapter.OpenShiftAdapter;
+import org.jboss.arquillian.ce.api.Template;
+import org.jboss.arquillian.ce.cube.CECubeConfiguration;
+import org.jboss.arquillian.ce.cube.CEEnvironmentProcessor;
+import org.jboss.arquillian.ce.fabric8.F8OpenShiftAdapter;
+import org.jboss.arquillian.container.spi.event.container.AfterStart;
+import org.jboss.arquillian.core.api.InstanceProducer;
+import org.jboss.arquillian.test.spi.TestClass;
+import org.jboss.arquillian.test.spi.event.suite.AfterClass;
+import org.jboss.arquillian.test.spi.event.suite.BeforeClass;
+import org.jboss.dmr.ModelNode;
+
+/**
+ * End-to-end timing of the {@link CEEnvironmentProcessor} lifecycle, BeforeClass -> AfterStart -> AfterClass,
+ * against a {@link MockApiServer} with scripted pod readiness.
+ * <p/>
+ * Reports wall time, API calls and bytes transferred per phase, to stdout and as JSON,
+ * so regressions in environment setup cost show up in CI:
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar org.jboss.arquillian.ce.benchmarks.EnvironmentLifecycleBenchmark
+ * </pre>
+ */
+public class EnvironmentLifecycleBenchmark {
+    private static final String NAMESPACE = "ce-arq-e2e";
+
+    private static final int WARMUP = Integer.getInteger("ce.e2e.warmup", 1);
+    private static final int ITERATIONS = Integer.getInteger("ce.e2e.iterations", 5);
+    private static final int REPLICAS = Integer.getInteger("ce.e2e.replicas", 2);
+    private static final long READINESS_DELAY = Long.getLong("ce.e2e.readiness.delay", 1000); // ms
+    private static final Long CHECK_PERIOD = Long.getLong("ce.e2e.check.period"); // ms, adapter's default if not set
+    private static final String REPORT = System.getProperty("ce.e2e.report", "target/ce-arq-e2e.json");
+
+    private static final String[] PHASES = {"BeforeClass", "AfterStart", "AfterClass"};
+
+    @Template(url = "${ce.e2e.template.url}", labels = "application=e2e")
+    public static class EnvironmentTestCase {
+    }
+
+    public static void main(String[] args) throws Exception {
+        try (MockApiServer server = new MockApiServer()) {
+            server.start();
+            server.setReadinessDelay(READINESS_DELAY);
+            System.setProperty("ce.e2e.template.url", server.addDocument("/templates/e2e.json", template(REPLICAS)));
+
+            Map<String, String> cubeProperties = new HashMap<>();
+            cubeProperties.put("kubernetes.master", server.getMasterUrl());
+            cubeProperties.put("namespace.use.existing", NAMESPACE);
+            cubeProperties.put("namespace.cleanup.enabled", "true");
+            CubeOpenShiftConfiguration cubeConfiguration = CubeOpenShiftConfiguration.fromMap(cubeProperties);
+
+            CECubeConfiguration configuration = CECubeConfiguration.fromMap(new HashMap<String, String>());
+            configuration.setCubeConfiguration(cubeConfiguration);
+            configuration.setStartupTimeout(60);
+
+            Config config = new ConfigBuilder().withMasterUrl(server.getMasterUrl()).withNamespace(NAMESPACE).build();
+            OpenShiftClient openshiftClient = new OpenShiftClient(config, NAMESPACE, false);
+            configuration.setClient(openshiftClient);
+
+            List<Map<String, Phase>> results = new ArrayList<>();
+            try (OpenShiftAdapter adapter = createAdapter(openshiftClient, configuration)) {
+                for (int i = 0; i < WARMUP + ITERATIONS; i++) {
+                    server.reset();
+                    Map<String, Phase> phases = run(server, adapter, configuration, cubeConfiguration, openshiftClient);
+                    if (i >= WARMUP) {
+                        results.add(phases);
+                    }
+                }
+            }
+
+            report(results);
+        }
+    }
+
+    private static OpenShiftAdapter createAdapter(OpenShiftClient client, CECubeConfiguration configuration) {
+        return new F8OpenShiftAdapter(client.getClient(), configuration) {
+            @Override
+            protected long getPodCheckPeriod() {
+                return CHECK_PERIOD != null ? CHECK_PERIOD : super.getPodCheckPeriod();
+            }
+        };
+    }
+
+    private static Map<String, Phase> run(MockApiServer server, OpenShiftAdapter adapter, CECubeConfiguration configuration,
+                                          CubeOpenShiftConfiguration cubeConfiguration, OpenShiftClient openshiftClient) throws Exception {
+        CEEnvironmentProcessor processor = new CEEnvironmentProcessor();
+        Holder<org.arquillian.cube.kubernetes.api.Configuration> configurationInstance = new Holder<>();
+        configurationInstance.set(cubeConfiguration);
+        Holder<CEEnvironmentProcessor.TemplateDetails> templateDetails = new Holder<>();
+        inject(processor, "configurationInstance", configurationInstance);
+        inject(processor, "templateDetailsProducer", templateDetails);
+
+        TestClass testClass = new TestClass(EnvironmentTestCase.class);
+        Map<String, Phase> phases = new LinkedHashMap<>();
+
+        server.resetCalls();
+        long start = System.nanoTime();
+        processor.createEnvironment(new BeforeClass(EnvironmentTestCase.class), adapter, configuration, openshiftClient);
+        phases.put(PHASES[0], new Phase(System.nanoTime() - start, server.getCalls()));
+
+        server.resetCalls();
+        start = System.nanoTime();
+        processor.waitForDeployments(new AfterStart(null), adapter, templateDetails.get(), testClass, configuration, openshiftClient);
+        phases.put(PHASES[1], new Phase(System.nanoTime() - start, server.getCalls()));
+
+        server.resetCalls();
+        start = System.nanoTime();
+        processor.deleteEnvironment(new AfterClass(EnvironmentTestCase.class), adapter, configuration);
+        phases.put(PHASES[2], new Phase(System.nanoTime() - start, server.getCalls()));
+
+        return phases;
+    }
+
+    private static void report(List<Map<String, Phase>> results) throws Exception {
+        ModelNode report = new ModelNode();
+        report.get("iterations").set(results.size());
+        report.get("replicas").set(REPLICAS);
+        report.get("readinessDelay").set(READINESS_DELAY);
+
+        StringBuilder builder = new StringBuilder("\nEnvironment lifecycle, ").append(results.size()).append(" iteration(s):\n\n");
+        builder.append(String.format("%-12s %10s %10s %10s %8s %12s %12s%n", "phase", "min ms", "avg ms", "max ms", "calls", "bytes out", "bytes in"));
+        for (String name : PHASES) {
+            long min = Long.MAX_VALUE, max = 0, total = 0;
+            Map<String, long[]> calls = new LinkedHashMap<>(); // count, request bytes, response bytes
+            for (Map<String, Phase> result : results) {
+                Phase phase = result.get(name);
+                min = Math.min(min, phase.nanos);
+                max = Math.max(max, phase.nanos);
+                total += phase.nanos;
+                for (Map.Entry<String, MockApiServer.ApiCall> entry : phase.calls.entrySet()) {
+                    long[] sums = calls.get(entry.getKey());
+                    if (sums == null) {
+                        sums = new long[3];
+                        calls.put(entry.getKey(), sums);
+                    }
+                    sums[0] += entry.getValue().getCount();
+                    sums[1] += entry.getValue().getRequestBytes();
+                    sums[2] += entry.getValue().getResponseBytes();
+                }
+            }
+            long[] sum = new long[3];
+            ModelNode node = report.get("phases", name);
+            for (long[] sums : calls.values()) {
+                for (int i = 0; i < 3; i++) {
+                    sum[i] += sums[i];
+                }
+            }
+            node.get("minMillis").set(millis(min));
+            node.get("avgMillis").set(millis(total / results.size()));
+            node.get("maxMillis").set(millis(max));
+            node.get("calls").setEmptyObject(); // keeps the key for phases without calls
+            for (Map.Entry<String, long[]> entry : calls.entrySet()) {
+                ModelNode call = node.get("calls", entry.getKey());
+                call.get("count").set(entry.getValue()[0] / results.size());
+                call.get("requestBytes").set(entry.getValue()[1] / results.size());
+                call.get("responseBytes").set(entry.getValue()[2] / results.size());
+            }
+
+            builder.append(String.format("%-12s %10.1f %10.1f %10.1f %8d %12d %12d%n", name, millis(min), millis(total / results.size()), millis(max),
+                sum[0] / results.size(), sum[1] / results.size(), sum[2] / results.size()));
+            for (Map.Entry<String, long[]> entry : calls.entrySet()) {
+                builder.append(String.format("  %-43s %8d %12d %12d%n", entry.getKey(), entry.getValue()[0] / results.size(),
+                    entry.getValue()[1] / results.size(), entry.getValue()[2] / results.size()));
+            }
+        }
+        System.out.println(builder);
+
+        File file = new File(REPORT);
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            writer.write(report.toJSONString(false));
+        }
+        System.out.println(String.format("Report written to %s", file.getAbsolutePath()));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1000000.0;
+    }
+
+    private static String template(int replicas) {
+        return "{\n" +
+            "  \"kind\": \"Template\",\n" +
+            "  \"apiVersion\": \"v1\",\n" +
+            "  \"metadata\": {\"name\": \"ce-arq-e2e\"},\n" +
+            "  \"parameters\": [\n" +
+            "    {\"name\": \"APPLICATION_NAME\", \"value\": \"e2e-app\"},\n" +
+            "    {\"name\": \"HOSTNAME_HTTP\", \"value\": \"\"}\n" +
+            "  ],\n" +
+            "  \"objects\": [\n" +
+            "    {\"kind\": \"Service\", \"apiVersion\": \"v1\",\n" +
+            "     \"metadata\": {\"name\": \"${APPLICATION_NAME}\", \"labels\": {\"application\": \"${APPLICATION_NAME}\"}},\n" +
+            "     \"spec\": {\"ports\": [{\"port\": 8080, \"targetPort\": 8080}], \"selector\": {\"deploymentConfig\": \"${APPLICATION_NAME}\"}}},\n" +
+            "    {\"kind\": \"Route\", \"apiVersion\": \"v1\",\n" +
+            "     \"metadata\": {\"name\": \"${APPLICATION_NAME}\", \"labels\": {\"application\": \"${APPLICATION_NAME}\"}},\n" +
+            "     \"spec\": {\"host\": \"${HOSTNAME_HTTP}\", \"to\": {\"kind\": \"Service\", \"name\": \"${APPLICATION_NAME}\"}}},\n" +
+            "    {\"kind\": \"DeploymentConfig\", \"apiVersion\": \"v1\",\n" +
+            "     \"metadata\": {\"name\": \"${APPLICATION_NAME}\", \"labels\": {\"application\": \"${APPLICATION_NAME}\"}},\n" +
+            "     \"spec\": {\"replicas\": " + replicas + ", \"selector\": {\"deploymentConfig\": \"${APPLICATION_NAME}\"},\n" +
+            "       \"strategy\": {\"type\": \"Recreate\"},\n" +
+            "       \"template\": {\"metadata\": {\"name\": \"${APPLICATION_NAME}\", \"labels\": {\"deploymentConfig\": \"${APPLICATION_NAME}\", \"application\": \"${APPLICATION_NAME}\"}},\n" +
+            "         \"spec\": {\"containers\": [{\"name\": \"${APPLICATION_NAME}\", \"image\": \"e2e-app\", \"ports\": [{\"containerPort\": 8080}]}]}}}}\n" +
+            "  ]\n" +
+            "}\n";
+    }
+
+    private static void inject(Object target, String name, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    private static class Phase {
+        private final long nanos;
+        private final Map<String, MockApiServer.ApiCall> calls;
+
+        private Phase(long nanos, Map<String, MockApiServer.ApiCall> calls) {
+            this.nanos = nanos;
+            this.calls = calls;
+        }
+    }
+
+    /**
+     * Stands in for Arquillian's injection points.
+     */
+    private static class Holder<T> implements InstanceProducer<T> {
+        private T value;
+
+        public void set(T value) {
+            this.value = value;
+        }
+
+        public T get() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.arquillian.ce.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.arquillian.ce.memory.InMemoryCluster;
+import org.jboss.arquillian.ce.memory.InMemoryOpenShiftAdapter;
+import org.jolokia.client.request.J4pReadRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * {@link org.jboss.arquillian.ce.adapter.AbstractOpenShiftAdapter#jolokia(Class, String, Object)}:
+ * request encoding and response decoding, with the in-memory adapter answering.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JolokiaBenchmark {
+    private static final byte[] RESPONSE = ("{\"request\":{\"mbean\":\"java.lang:type=Memory\",\"attribute\":\"HeapMemoryUsage\",\"type\":\"read\"}," +
+        "\"value\":{\"init\":268435456,\"committed\":268435456,\"max\":4294967296,\"used\":123456789}," +
+        "\"timestamp\":1500000000,\"status\":200}").getBytes(StandardCharsets.UTF_8);
+
+    private InMemoryCluster cluster;
+    private InMemoryOpenShiftAdapter adapter;
+    private J4pReadRequest request;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        cluster = new InMemoryCluster();
+        cluster.createPod("pod", null);
+        cluster.setHttpHandler(new InMemoryCluster.HttpHandler() {
+            public byte[] handle(String podName, int port, String path, byte[] body) {
+                return RESPONSE;
+            }
+        });
+        adapter = new InMemoryOpenShiftAdapter(new BenchmarkConfiguration("http://localhost:8443", "bench"), cluster);
+        request = new J4pReadRequest("java.lang:type=Memory", "HeapMemoryUsage");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        adapter.close();
+    }
+
+    @Benchmark
+    public Object jolokia() throws Exception {
+        return adapter.jolokia(Object.class, "pod", request);
+    }
+}
@@ -0,0 +1,578 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.arquillian.ce.benchmarks;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+
+/**
+ * A local stand-in for the Kubernetes / OpenShift REST API, on top of {@link MockWebServer}.
+ * <p/>
+ * Resources are kept as plain JSON per collection path, with just enough server side behavior
+ * for the ce-arq environment lifecycle: template processing, template labels, JSON patches,
+ * label selectors, and DCs that spawn pods which become ready after a scripted delay.
+ * Every call is counted per verb and resource, with request and response bytes.
+ */
+public class MockApiServer implements AutoCloseable {
+    private static final String DC_ANNOTATION = "openshift.io/deployment-config.name";
+
+    private final MockWebServer server = new MockWebServer();
+    private final Map<String, Map<String, ModelNode>> collections = new HashMap<>();
+    private final Map<String, Long> podsReadyAt = new HashMap<>();
+    private final Map<String, byte[]> documents = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ApiCall> calls = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private volatile long readinessDelay; // ms
+
+    public MockApiServer() {
+        server.setDispatcher(new Dispatcher() {
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                return MockApiServer.this.dispatch(request);
+            }
+        });
+    }
+
+    public void start() throws IOException {
+        server.start();
+    }
+
+    public void close() throws IOException {
+        server.shutdown();
+    }
+
+    /**
+     * @return the master url, without the trailing slash
+     */
+    public String getMasterUrl() {
+        String url = server.url("/").toString();
+        return url.substring(0, url.length() - 1);
+    }
+
+    /**
+     * Serve a static document, e.g. a template, from the given path.
+     *
+     * @return the document's url
+     */
+    public String addDocument(String path, String content) {
+        documents.put(path, content.getBytes(StandardCharsets.UTF_8));
+        return server.url(path).toString();
+    }
+
+    /**
+     * How long new pods take to become ready.
+     */
+    public void setReadinessDelay(long delay) {
+        this.readinessDelay = delay;
+    }
+
+    /**
+     * Calls since the last reset, keyed by verb and resource, e.g. "GET pods".
+     */
+    public Map<String, ApiCall> getCalls() {
+        return new TreeMap<>(calls);
+    }
+
+    public void resetCalls() {
+        calls.clear();
+    }
+
+    public synchronized void reset() {
+        collections.clear();
+        podsReadyAt.clear();
+        calls.clear();
+    }
+
+    // --- dispatching
+
+    private MockResponse dispatch(RecordedRequest request) {
+        HttpUrl url = request.getRequestUrl();
+        String method = request.getMethod();
+        String body = request.getBodySize() > 0 ? request.getBody().readUtf8() : null;
+
+        Path path = Path.parse(url.encodedPath());
+        String key;
+        Response response;
+        if (path == null) {
+            key = method + " " + url.encodedPath();
+            byte[] document = documents.get(url.encodedPath());
+            response = (document != null && "GET".equals(method)) ? new Response(200, new String(document, StandardCharsets.UTF_8)) : notFound();
+        } else {
+            key = method + " " + (path.sub != null ? path.resource + "/" + path.sub : path.resource);
+            try {
+                synchronized (this) {
+                    response = handle(method, path, url, body);
+                }
+            } catch (RuntimeException e) {
+                response = status(500, "InternalError", String.valueOf(e));
+            }
+        }
+
+        byte[] bytes = response.body.getBytes(StandardCharsets.UTF_8);
+        calls.putIfAbsent(key, new ApiCall());
+        calls.get(key).record(request.getBodySize(), bytes.length);
+
+        return new MockResponse()
+            .setResponseCode(response.code)
+            .setHeader("Content-Type", "application/json")
+            .setBody(response.body);
+    }
+
+    private Response handle(String method, Path path, HttpUrl url, String body) {
+        if (path.sub != null) {
+            if ("log".equals(path.sub) && "GET".equals(method) && get(path.collection, path.name) != null) {
+                return new Response(200, "");
+            }
+            return notFound();
+        }
+
+        switch (method) {
+            case "GET":
+                if (path.name == null) {
+                    return new Response(200, list(path, select(path.collection, url.queryParameter("labelSelector"))).toJSONString(true));
+                }
+                ModelNode item = get(path.collection, path.name);
+                return item != null ? new Response(200, render(path, item).toJSONString(true)) : notFound();
+            case "POST":
+                ModelNode posted = ModelNode.fromJSONString(body);
+                if ("processedtemplates".equals(path.resource)) {
+                    return new Response(201, process(posted).toJSONString(true));
+                }
+                String name = posted.get("metadata", "name").asString();
+                if (get(path.collection, name) != null) {
+                    return status(409, "AlreadyExists", String.format("%s \"%s\" already exists", path.resource, name));
+                }
+                return new Response(201, render(path, store(path, name, posted)).toJSONString(true));
+            case "PUT":
+            case "PATCH":
+                ModelNode existing = get(path.collection, path.name);
+                if (existing == null) {
+                    return notFound();
+                }
+                ModelNode updated = "PUT".equals(method) ? ModelNode.fromJSONString(body) : JsonPatch.apply(existing.clone(), ModelNode.fromJSONString(body));
+                return new Response(200, render(path, store(path, path.name, updated)).toJSONString(true));
+            case "DELETE":
+                if (path.name == null) {
+                    for (ModelNode selected : select(path.collection, url.queryParameter("labelSelector"))) {
+                        delete(path, selected.get("metadata", "name").asString());
+                    }
+                    return status(200, null, null);
+                }
+                return delete(path, path.name) ? status(200, null, null) : notFound();
+            default:
+                return status(405, "MethodNotAllowed", method);
+        }
+    }
+
+    // --- storage
+
+    private ModelNode get(String collection, String name) {
+        Map<String, ModelNode> items = collections.get(collection);
+        return items != null ? items.get(name) : null;
+    }
+
+    private ModelNode store(Path path, String name, ModelNode item) {
+        ModelNode metadata = item.get("metadata");
+        metadata.get("name").set(name);
+        if (path.namespace != null) {
+            metadata.get("namespace").set(path.namespace);
+        }
+        metadata.get("resourceVersion").set(String.valueOf(sequence.incrementAndGet()));
+        metadata.get("generation").set(metadata.has("generation") ? metadata.get("generation").asLong() + 1 : 1);
+
+        Map<String, ModelNode> items = collections.get(path.collection);
+        if (items == null) {
+            items = new LinkedHashMap<>();
+            collections.put(path.collection, items);
+        }
+        items.put(name, item);
+
+        if ("deploymentconfigs".equals(path.resource)) {
+            deploy(path, name, item);
+        }
+        return item;
+    }
+
+    private boolean delete(Path path, String name) {
+        Map<String, ModelNode> items = collections.get(path.collection);
+        if (items == null || items.remove(name) == null) {
+            return false;
+        }
+        if ("deploymentconfigs".equals(path.resource)) {
+            for (String pod : podsOf(path.namespace, name)) {
+                collections.get(podsCollection(path.namespace)).remove(pod);
+                podsReadyAt.remove(pod);
+            }
+        }
+        return true;
+    }
+
+    private List<ModelNode> select(String collection, String labelSelector) {
+        Map<String, ModelNode> items = collections.get(collection);
+        if (items == null) {
+            return Collections.emptyList();
+        }
+        Map<String, String> selector = parseSelector(labelSelector);
+        List<ModelNode> selected = new ArrayList<>();
+        for (ModelNode item : items.values()) {
+            if (matches(item.get("metadata", "labels"), selector)) {
+                selected.add(item);
+            }
+        }
+        return selected;
+    }
+
+    private ModelNode list(Path path, List<ModelNode> items) {
+        ModelNode list = new ModelNode();
+        list.get("apiVersion").set("v1");
+        list.get("kind").set(items.isEmpty() ? "List" : items.get(0).get("kind").asString() + "List");
+        list.get("metadata", "resourceVersion").set(String.valueOf(sequence.get()));
+        ModelNode array = list.get("items").setEmptyList();
+        for (ModelNode item : items) {
+            array.add(render(path, item));
+        }
+        return list;
+    }
+
+    // --- server side behavior
+
+    /**
+     * Pods get their readiness computed on the fly, everything else is returned as stored.
+     */
+    private ModelNode render(Path path, ModelNode item) {
+        if ("pods".equals(path.resource) == false) {
+            return item;
+        }
+        Long readyAt = podsReadyAt.get(item.get("metadata", "name").asString());
+        boolean ready = readyAt == null || System.currentTimeMillis() >= readyAt;
+
+        ModelNode pod = item.clone();
+        ModelNode status = pod.get("status");
+        status.get("phase").set("Running");
+        ModelNode condition = new ModelNode();
+        condition.get("type").set("Ready");
+        condition.get("status").set(ready ? "True" : "False");
+        status.get("conditions").setEmptyList().add(condition);
+        return pod;
+    }
+
+    private ModelNode process(ModelNode template) {
+        Map<String, String> parameters = new HashMap<>();
+        if (template.has("parameters")) {
+            for (ModelNode parameter : template.get("parameters").asList()) {
+                String value = parameter.has("value") ? parameter.get("value").asString() : "";
+                if (value.isEmpty() && parameter.has("generate")) {
+                    value = Long.toHexString(sequence.incrementAndGet());
+                }
+                parameters.put(parameter.get("name").asString(), value);
+            }
+        }
+
+        String objects = template.has("objects") ? template.get("objects").toJSONString(true) : "[]";
+        for (Map.Entry<String, String> entry : parameters.entrySet()) {
+            objects = objects.replace("${" + entry.getKey() + "}", entry.getValue());
+        }
+
+        ModelNode processed = ModelNode.fromJSONString(objects);
+        if (template.has("labels")) {
+            ModelNode labels = template.get("labels");
+            for (ModelNode object : processed.asList()) {
+                for (String label : labels.keys()) {
+                    object.get("metadata", "labels", label).set(labels.get(label));
+                }
+            }
+        }
+        template.get("objects").set(processed);
+        return template;
+    }
+
+    /**
+     * Keep the DC's pods in line with its replicas; DCs are deployed right away.
+     */
+    private void deploy(Path path, String name, ModelNode dc) {
+        int replicas = dc.get("spec", "replicas").isDefined() ? dc.get("spec", "replicas").asInt() : 1;
+
+        ModelNode status = dc.get("status");
+        status.get("replicas").set(replicas);
+        status.get("latestVersion").set(1);
+        status.get("observedGeneration").set(dc.get("metadata", "generation"));
+
+        List<String> pods = podsOf(path.namespace, name);
+        String collection = podsCollection(path.namespace);
+        for (int i = pods.size(); i > replicas; i--) {
+            String pod = pods.get(i - 1);
+            collections.get(collection).remove(pod);
+            podsReadyAt.remove(pod);
+        }
+        for (int i = pods.size(); i < replicas; i++) {
+            String pod = String.format("%s-1-%s", name, Long.toHexString(sequence.incrementAndGet()));
+            ModelNode node = new ModelNode();
+            node.get("apiVersion").set("v1");
+            node.get("kind").set("Pod");
+            node.get("metadata", "annotations", DC_ANNOTATION).set(name);
+            ModelNode labels = node.get("metadata", "labels");
+            for (ModelNode source : new ModelNode[]{dc.get("spec", "selector"), dc.get("spec", "template", "metadata", "labels")}) {
+                if (source.isDefined()) {
+                    for (String label : source.keys()) {
+                        labels.get(label).set(source.get(label));
+                    }
+                }
+            }
+            podsReadyAt.put(pod, System.currentTimeMillis() + readinessDelay);
+            store(new Path(path.namespace, "pods", null, null, collection), pod, node);
+        }
+    }
+
+    private List<String> podsOf(String namespace, String dc) {
+        List<String> pods = new ArrayList<>();
+        Map<String, ModelNode> items = collections.get(podsCollection(namespace));
+        if (items != null) {
+            for (Map.Entry<String, ModelNode> entry : items.entrySet()) {
+                ModelNode annotation = entry.getValue().get("metadata", "annotations", DC_ANNOTATION);
+                if (annotation.isDefined() && dc.equals(annotation.asString())) {
+                    pods.add(entry.getKey());
+                }
+            }
+        }
+        return pods;
+    }
+
+    private static String podsCollection(String namespace) {
+        return String.format("api/v1/namespaces/%s/pods", namespace);
+    }
+
+    private static Map<String, String> parseSelector(String labelSelector) {
+        Map<String, String> selector = new HashMap<>();
+        if (labelSelector != null && labelSelector.length() > 0) {
+            for (String term : labelSelector.split(",")) {
+                int p = term.indexOf('=');
+                if (p > 0) {
+                    selector.put(term.substring(0, p), term.substring(p + 1));
+                }
+            }
+        }
+        return selector;
+    }
+
+    private static boolean matches(ModelNode labels, Map<String, String> selector) {
+        for (Map.Entry<String, String> entry : selector.entrySet()) {
+            if (labels.has(entry.getKey()) == false || entry.getValue().equals(labels.get(entry.getKey()).asString()) == false) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Response notFound() {
+        return status(404, "NotFound", "the server could not find the requested resource");
+    }
+
+    private static Response status(int code, String reason, String message) {
+        ModelNode status = new ModelNode();
+        status.get("kind").set("Status");
+        status.get("apiVersion").set("v1");
+        status.get("status").set(code < 400 ? "Success" : "Failure");
+        status.get("code").set(code);
+        if (reason != null) {
+            status.get("reason").set(reason);
+            status.get("message").set(message);
+        }
+        return new Response(code, status.toJSONString(true));
+    }
+
+    // --- helper types
+
+    /**
+     * Call count and bytes transferred, for a verb and resource.
+     */
+    public static class ApiCall {
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong requestBytes = new AtomicLong();
+        private final AtomicLong responseBytes = new AtomicLong();
+
+        private void record(long requestSize, long responseSize) {
+            count.incrementAndGet();
+            requestBytes.addAndGet(Math.max(requestSize, 0));
+            responseBytes.addAndGet(responseSize);
+        }
+
+        public long getCount() {
+            return count.get();
+        }
+
+        public long getRequestBytes() {
+            return requestBytes.get();
+        }
+
+        public long getResponseBytes() {
+            return responseBytes.get();
+        }
+    }
+
+    private static class Response {
+        private final int code;
+        private final String body;
+
+        private Response(int code, String body) {
+            this.code = code;
+            this.body = body;
+        }
+    }
+
+    /**
+     * /api|oapi/v1/[namespaces/ns/]resource[/name[/sub]]
+     */
+    private static class Path {
+        private final String namespace;
+        private final String resource;
+        private final String name;
+        private final String sub;
+        private final String collection;
+
+        private Path(String namespace, String resource, String name, String sub, String collection) {
+            this.namespace = namespace;
+            this.resource = resource;
+            this.name = name;
+            this.sub = sub;
+            this.collection = collection;
+        }
+
+        private static Path parse(String encodedPath) {
+            String[] segments = encodedPath.substring(1).split("/");
+            if (segments.length < 3 || ("api".equals(segments[0]) == false && "oapi".equals(segments[0]) == false)) {
+                return null;
+            }
+            for (int i = 0; i < segments.length; i++) {
+                segments[i] = decode(segments[i]);
+            }
+            String prefix = segments[0] + "/" + segments[1];
+            if ("namespaces".equals(segments[2]) && segments.length >= 5) {
+                return new Path(segments[3], segments[4], at(segments, 5), at(segments, 6), String.format("%s/namespaces/%s/%s", prefix, segments[3], segments[4]));
+            }
+            return new Path(null, segments[2], at(segments, 3), at(segments, 4), prefix + "/" + segments[2]);
+        }
+
+        private static String at(String[] segments, int index) {
+            return index < segments.length ? segments[index] : null;
+        }
+
+        private static String decode(String segment) {
+            try {
+                return URLDecoder.decode(segment, "UTF-8");
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * The subset of RFC 6902 the fabric8 client sends on edits: add, replace and remove.
+     */
+    private static class JsonPatch {
+        private static ModelNode apply(ModelNode target, ModelNode operations) {
+            for (ModelNode operation : operations.asList()) {
+                String op = operation.get("op").asString();
+                String[] tokens = operation.get("path").asString().substring(1).split("/", -1);
+                for (int i = 0; i < tokens.length; i++) {
+                    tokens[i] = tokens[i].replace("~1", "/").replace("~0", "~");
+                }
+
+                ModelNode parent = target;
+                for (int i = 0; i < tokens.length - 1; i++) {
+                    parent = parent.getType() == ModelType.LIST ? parent.get(Integer.parseInt(tokens[i])) : parent.get(tokens[i]);
+                }
+                String last = tokens[tokens.length - 1];
+
+                switch (op) {
+                    case "add":
+                    case "replace":
+                        if (parent.getType() == ModelType.LIST) {
+                            if ("-".equals(last)) {
+                                parent.add(operation.get("value"));
+                            } else if ("add".equals(op)) {
+                                parent.set(splice(parent, Integer.parseInt(last), operation.get("value")));
+                            } else {
+                                parent.get(Integer.parseInt(last)).set(operation.get("value"));
+                            }
+                        } else {
+                            parent.get(last).set(operation.get("value"));
+                        }
+                        break;
+                    case "remove":
+                        if (parent.getType() == ModelType.LIST) {
+                            parent.set(splice(parent, Integer.parseInt(last), null));
+                        } else {
+                            ModelNode copy = new ModelNode();
+                            for (String key : parent.keys()) {
+                                if (key.equals(last) == false) {
+                                    copy.get(key).set(parent.get(key));
+                                }
+                            }
+                            parent.set(copy.isDefined() ? copy : new ModelNode().setEmptyObject());
+                        }
+                        break;
+                    default:
+                        throw new IllegalArgumentException(String.format("Unsupported JSON patch op: %s", op));
+                }
+            }
+            return target;
+        }
+
+        /**
+         * Copy of the list with the value inserted at index, or the element at index removed if value is null.
+         */
+        private static ModelNode splice(ModelNode list, int index, ModelNode value) {
+            List<ModelNode> elements = new ArrayList<>(list.asList());
+            if (value != null) {
+                elements.add(index, value);
+            } else {
+                elements.remove(index);
+            }
+            ModelNode copy = new ModelNode().setEmptyList();
+            for (ModelNode element : elements) {
+                copy.add(element);
+            }
+            return copy;
+        }
+    }
+}
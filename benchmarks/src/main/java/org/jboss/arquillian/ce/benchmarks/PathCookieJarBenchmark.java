@@ -0,0 +1,91 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.arquillian.ce.benchmarks;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Cookie;
+import okhttp3.HttpUrl;
+import org.jboss.arquillian.ce.utils.PathCookieJar;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * {@link PathCookieJar} lookups, with cookies stored for many proxy paths.
+ * <p/>
+ * PathCookieJar replaced OkHttpClientUtils.SimpleCookieJar, so this is the cookie jar hot path now.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PathCookieJarBenchmark {
+    private static final String BASE = "https://localhost:8443/api/v1/namespaces/bench/pods/%s:8080/proxy/%s";
+
+    @Param({"10", "1000"})
+    public int paths;
+
+    private PathCookieJar jar;
+    private HttpUrl hit;
+    private HttpUrl miss;
+    private HttpUrl save;
+    private List<Cookie> cookies;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        jar = new PathCookieJar();
+        for (int i = 0; i < paths; i++) {
+            HttpUrl url = HttpUrl.parse(String.format(BASE, "pod-" + i, "app-" + i + "/"));
+            jar.saveFromResponse(url, Collections.singletonList(Cookie.parse(url, "JSESSIONID=" + i + "; Path=/")));
+        }
+        hit = HttpUrl.parse(String.format(BASE, "pod-" + (paths / 2), "app-" + (paths / 2) + "/servlet/index.jsp"));
+        miss = HttpUrl.parse(String.format(BASE, "pod-x", "unknown/servlet/index.jsp"));
+        save = HttpUrl.parse(String.format(BASE, "pod-0", "app-0/"));
+        cookies = Collections.singletonList(Cookie.parse(save, "JSESSIONID=0; Path=/"));
+    }
+
+    @Benchmark
+    public List<Cookie> loadHit() {
+        return jar.loadForRequest(hit);
+    }
+
+    @Benchmark
+    public List<Cookie> loadMiss() {
+        return jar.loadForRequest(miss);
+    }
+
+    @Benchmark
+    public PathCookieJar save() {
+        jar.saveFromResponse(save, cookies);
+        return jar;
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.arquillian.ce.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+import org.jboss.arquillian.ce.portfwd.PortForward;
+import org.jboss.arquillian.ce.portfwd.PortForwardContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Round trips through {@link PortForward}, against a loopback "API server"
+ * which accepts the port-forward request and then echoes everything back.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PortForwardBenchmark {
+    @Param({"64", "4096"})
+    public int size;
+
+    private ServerSocket apiServer;
+    private PortForward.Handle handle;
+    private Socket socket;
+    private byte[] payload;
+    private byte[] received;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        apiServer = new ServerSocket(0, 0, InetAddress.getLoopbackAddress());
+        Thread echo = new Thread(new Runnable() {
+            public void run() {
+                echo();
+            }
+        }, "echo-api-server");
+        echo.setDaemon(true);
+        echo.start();
+
+        int port;
+        try (ServerSocket free = new ServerSocket(0)) {
+            port = free.getLocalPort();
+        }
+        String master = "http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":" + apiServer.getLocalPort();
+        handle = new PortForward(new OkHttpClient()).run(new PortForwardContext(master, "node", "bench", "pod", port));
+        socket = new Socket(handle.getInetAddress(), port);
+
+        payload = new byte[size];
+        Arrays.fill(payload, (byte) 'x');
+        received = new byte[size];
+    }
+
+    private void echo() {
+        try (Socket client = apiServer.accept()) {
+            InputStream in = client.getInputStream();
+            OutputStream out = client.getOutputStream();
+            // skip the request headers, accept the port-forward
+            int matched = 0;
+            byte[] end = "\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+            while (matched < end.length) {
+                int b = in.read();
+                if (b == -1) {
+                    return;
+                }
+                matched = (b == end[matched]) ? matched + 1 : (b == end[0] ? 1 : 0);
+            }
+            out.write("HTTP/1.1 200 OK\r\nContent-Length: 0\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+                out.flush();
+            }
+        } catch (IOException ignored) {
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        socket.close();
+        handle.close();
+        apiServer.close();
+    }
+
+    @Benchmark
+    public byte[] roundTrip() throws Exception {
+        socket.getOutputStream().write(payload);
+        socket.getOutputStream().flush();
+        InputStream in = socket.getInputStream();
+        int read = 0;
+        while (read < size) {
+            int n = in.read(received, read, size - read);
+            if (n == -1) {
+                throw new IllegalStateException("Port-forward closed");
+            }
+            read += n;
+        }
+        return received;
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.arquillian.ce.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.SSLContext;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import org.jboss.arquillian.ce.proxy.AbstractProxy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * {@link AbstractProxy#post(String, Class, Object)}: Java serialization of the request and response,
+ * against a mock web server answering with a pre-serialized result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProxyPostBenchmark {
+    @Param({"1", "100"})
+    public int entries;
+
+    private MockWebServer server;
+    private BenchmarkProxy proxy;
+    private String url;
+    private HashMap<String, String> request;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        request = new HashMap<>();
+        for (int i = 0; i < entries; i++) {
+            request.put("key-" + i, "value-" + i);
+        }
+        final byte[] response = serialize(request);
+
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            public MockResponse dispatch(RecordedRequest recordedRequest) {
+                return new MockResponse().setBody(new Buffer().write(response));
+            }
+        });
+        server.start();
+
+        String master = server.url("/").toString();
+        proxy = new BenchmarkProxy(master.substring(0, master.length() - 1));
+        url = proxy.url("pod", 8080, "/test", null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        proxy.close();
+        server.shutdown();
+    }
+
+    @Benchmark
+    public Map post() throws Exception {
+        return proxy.post(url, Map.class, request);
+    }
+
+    private static byte[] serialize(Object object) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+            oos.writeObject(object);
+        }
+        return baos.toByteArray();
+    }
+
+    private static class BenchmarkProxy extends AbstractProxy<String> {
+        private final OkHttpClient httpClient = new OkHttpClient();
+
+        private BenchmarkProxy(String master) {
+            super(new BenchmarkConfiguration(master, "bench"));
+        }
+
+        public SSLContext getSSLContext() {
+            throw new UnsupportedOperationException();
+        }
+
+        protected List<String> getPods(Map<String, String> labels) {
+            return Collections.singletonList("pod");
+        }
+
+        protected String getName(String pod) {
+            return pod;
+        }
+
+        protected boolean isReady(String pod) {
+            return true;
+        }
+
+        protected OkHttpClient getHttpClient() {
+            return httpClient;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.arquillian.ce.benchmarks;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.arquillian.ce.utils.StringResolver;
+import org.jboss.arquillian.ce.utils.Strings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * {@link Strings#createStringResolver(Properties)}: creating a resolver per value vs. reusing one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StringResolverBenchmark {
+    private static final String VALUE = "http://${app.host:localhost}:${app.port:8080}/${app.context}/index.html";
+
+    private Properties properties;
+    private StringResolver resolver;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        properties = new Properties();
+        properties.setProperty("app.host", "eap-app-bench.router.default.svc");
+        properties.setProperty("app.context", "bench");
+        resolver = Strings.createStringResolver(properties);
+    }
+
+    @Benchmark
+    public String createAndResolve() {
+        return Strings.createStringResolver(properties).resolve(VALUE);
+    }
+
+    @Benchmark
+    public String resolve() {
+        return resolver.resolve(VALUE);
+    }
+}
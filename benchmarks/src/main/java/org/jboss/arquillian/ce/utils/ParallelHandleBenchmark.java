@@ -0,0 +1,83 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.arquillian.ce.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * {@link ParallelHandle} handoff between the waiting test and the notifying build.
+ * <p/>
+ * Lives in the utils package, as the handle is package private.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ParallelHandleBenchmark {
+    private static final String INFO = "bench";
+
+    private ParallelHandle handle;
+
+    @Setup
+    public void setup() {
+        // every transition is logged at INFO, keep it out of the measurement
+        Logger.getLogger(ParallelHandle.class.getName()).setLevel(Level.WARNING);
+        handle = new ParallelHandle();
+    }
+
+    @Benchmark
+    public ParallelHandle uncontended() {
+        handle.init(INFO);
+        handle.doNotify(INFO);
+        handle.doWait(INFO);
+        handle.clear(INFO, "main");
+        handle.clear(INFO, "pod");
+        return handle;
+    }
+
+    @Benchmark
+    public ParallelHandle handoff() throws Exception {
+        handle.init(INFO);
+        Thread notifier = new Thread(new Runnable() {
+            public void run() {
+                handle.doNotify(INFO);
+            }
+        });
+        notifier.start();
+        handle.doWait(INFO);
+        notifier.join();
+        handle.clear(INFO, "main");
+        handle.clear(INFO, "pod");
+        return handle;
+    }
+}
@@ -26,6 +26,7 @@ import org.arquillian.cube.openshift.impl.client.OpenShiftClient;
 import org.jboss.arquillian.ce.adapter.OpenShiftAdapter;
 import org.jboss.arquillian.ce.api.ConfigurationHandle;
 import org.jboss.arquillian.ce.fabric8.F8OpenShiftAdapter;
+import org.jboss.arquillian.ce.tracing.Tracing;
 import org.jboss.arquillian.config.descriptor.api.ArquillianDescriptor;
 import org.jboss.arquillian.core.api.InstanceProducer;
 import org.jboss.arquillian.core.api.annotation.ApplicationScoped;
@@ -65,6 +66,10 @@ public class CECubeInitializer {
 
     public void createOpenShiftAdapter(@Observes OpenShiftClient client, CECubeConfiguration configuration) {
         configuration.setClient(client);
-        openShiftAdapterProducer.set(new F8OpenShiftAdapter(client.getClient(), configuration));
+        OpenShiftAdapter adapter = new F8OpenShiftAdapter(client.getClient(), configuration);
+        if (Tracing.isEnabled()) {
+            adapter = Tracing.wrap(adapter, configuration.getNamespace());
+        }
+        openShiftAdapterProducer.set(adapter);
     }
 }
@@ -43,12 +43,18 @@ import org.jboss.arquillian.ce.adapter.OpenShiftAdapter;
 import org.jboss.arquillian.ce.api.Template;
 import org.jboss.arquillian.ce.api.model.DeploymentConfig;
 import org.jboss.arquillian.ce.api.model.OpenShiftResource;
+import org.jboss.arquillian.ce.cube.PhaseTimings.Phase;
 import org.jboss.arquillian.ce.cube.dns.CENameService;
+import org.jboss.arquillian.ce.metrics.ApiMetrics;
 import org.jboss.arquillian.ce.resources.OpenShiftResourceFactory;
+import org.jboss.arquillian.ce.tracing.Span;
+import org.jboss.arquillian.ce.tracing.Tracing;
 import org.jboss.arquillian.ce.utils.Operator;
 import org.jboss.arquillian.ce.utils.ParamValue;
+import org.jboss.arquillian.ce.utils.PodLogCollector;
 import org.jboss.arquillian.ce.utils.StringResolver;
 import org.jboss.arquillian.ce.utils.Strings;
+import org.jboss.arquillian.ce.utils.Timer;
 import org.jboss.arquillian.container.spi.client.container.DeploymentException;
 import org.jboss.arquillian.container.spi.event.container.AfterStart;
 import org.jboss.arquillian.core.api.Instance;
@@ -76,6 +82,8 @@ public class CEEnvironmentProcessor {
 
     private final Logger log = Logger.getLogger(CEEnvironmentProcessor.class.getName());
     private List<Template> templates = Collections.emptyList();
+    private PhaseTimings timings; // of the current test class
+    private final PhaseReport phaseReport = new PhaseReport();
 
     public interface TemplateDetails {
         List<List<? extends OpenShiftResource>> getResources();
@@ -101,16 +109,26 @@ public class CEEnvironmentProcessor {
                                   CECubeConfiguration configuration, OpenShiftClient openshiftClient) throws DeploymentException {
         final TestClass testClass = event.getTestClass();
         log.info(String.format("Creating environment for %s", testClass.getName()));
-        OpenShiftResourceFactory.createResources(testClass.getName(), client, null, testClass.getJavaClass(), configuration.getProperties());
-        processTemplateResources(testClass, client, configuration);
-        final CubeOpenShiftConfiguration config = (CubeOpenShiftConfiguration) configurationInstance.get();
-        registerRoutes(config, openshiftClient);
+        timings = new PhaseTimings(testClass.getName());
+        Span span = Tracing.start("ce-arq.environment.create").attribute("ce-arq.test.class", testClass.getName());
+        try {
+            Timer timer = new Timer();
+            OpenShiftResourceFactory.createResources(testClass.getName(), client, null, testClass.getJavaClass(), configuration.getProperties());
+            timings.add(Phase.RESOURCES, timer.lap());
+            processTemplateResources(testClass, client, configuration, openshiftClient);
+            timer.reset();
+            final CubeOpenShiftConfiguration config = (CubeOpenShiftConfiguration) configurationInstance.get();
+            registerRoutes(config, openshiftClient);
+            timings.add(Phase.ROUTES, timer.lap());
+        } finally {
+            Tracing.end(span);
+        }
     }
 
     /**
      * Instantiates the templates specified by @Template within @TemplateResources
      */
-    private void processTemplateResources(TestClass testClass, OpenShiftAdapter client, CECubeConfiguration configuration) throws DeploymentException {
+    private void processTemplateResources(TestClass testClass, OpenShiftAdapter client, CECubeConfiguration configuration, OpenShiftClient openshiftClient) throws DeploymentException {
     	List<? extends OpenShiftResource> resources;
     	final List<List<? extends OpenShiftResource>> RESOURCES = new ArrayList<List<? extends OpenShiftResource>>(); 
     	templates = OpenShiftResourceFactory.getTemplates(testClass.getJavaClass());
@@ -118,7 +136,9 @@ public class CEEnvironmentProcessor {
 
     	/* Instantiate templates */
       	for (Template template : templates) {
+    		Timer timer = new Timer();
     		resources = processTemplate(template, testClass, client, configuration);
+    		timings.add(Phase.TEMPLATES, timer.lap());
     		if (sync_instantiation) {
     			/* synchronous template instantiation */
     			RESOURCES.add(resources);
@@ -128,7 +148,9 @@ public class CEEnvironmentProcessor {
     				delay(client, resources);
     			}
     			catch (Throwable t) {
-    				throw new DeploymentException("Error waiting for template resources to deploy: " + testClass.getName(), t);
+    				throw readinessFailed(t, client, testClass, configuration, openshiftClient);
+    			} finally {
+    				timings.add(Phase.READINESS, timer.lap());
     			}
     		}
       	}
@@ -140,6 +162,15 @@ public class CEEnvironmentProcessor {
         });
     }
 
+    /**
+     * Log events and collect pod logs, for whichever way the template resources were waited for.
+     */
+    private DeploymentException readinessFailed(Throwable t, OpenShiftAdapter client, TestClass testClass, CECubeConfiguration configuration, OpenShiftClient openshiftClient) {
+        logEvents(openshiftClient, configuration);
+        collectLogs(client, testClass);
+        return new DeploymentException("Error waiting for template resources to deploy: " + testClass.getName(), t);
+    }
+
     private void logEvents(OpenShiftClient client, CECubeConfiguration configuration) {
         StringBuilder b = new StringBuilder("\nLogged events from Openshift:\n\n");
 
@@ -151,6 +182,14 @@ public class CEEnvironmentProcessor {
         log.info(b.toString());
     }
 
+    private void collectLogs(OpenShiftAdapter client, TestClass testClass) {
+        try {
+            new PodLogCollector(client).collect(testClass.getName(), Collections.singletonMap("test-case", testClass.getJavaClass().getSimpleName().toLowerCase()));
+        } catch (Exception e) {
+            log.warning(String.format("Cannot collect pod logs for %s: %s", testClass.getName(), e));
+        }
+    }
+
     /**
      * Wait for the template resources to come up after the test container has
      * been started. This allows the test container and the template resources
@@ -166,13 +205,15 @@ public class CEEnvironmentProcessor {
             return;
         }
         log.info(String.format("Waiting for environment for %s", testClass.getName()));
+        Timer timer = new Timer();
         try {
        	    for (List<? extends OpenShiftResource> resources : details.getResources()) {
                 delay(client, resources);
             }
         } catch (Throwable t) {
-            logEvents(openshiftClient, configuration);
-            throw new DeploymentException("Error waiting for template resources to deploy: " + testClass.getName(), t);
+            throw readinessFailed(t, client, testClass, configuration, openshiftClient);
+        } finally {
+            timings.add(Phase.READINESS, timer.lap());
         }
     }
 
@@ -183,7 +224,27 @@ public class CEEnvironmentProcessor {
      * objects, e.g. StopCube(application), DestroyCube(application).
      */
     public void deleteEnvironment(@Observes(precedence = -10) AfterClass event, OpenShiftAdapter client, CECubeConfiguration configuration) throws Exception {
-        deleteEnvironment(event.getTestClass(), client, configuration);
+        Timer timer = new Timer();
+        Span span = Tracing.start("ce-arq.environment.delete").attribute("ce-arq.test.class", event.getTestClass().getName());
+        try {
+            deleteEnvironment(event.getTestClass(), client, configuration);
+        } finally {
+            Tracing.end(span);
+            Tracing.export(); // after each class, so the trace is complete even if the suite is killed
+            if (timings == null) {
+                timings = new PhaseTimings(event.getTestClass().getName()); // no environment was created
+            }
+            timings.add(Phase.TEARDOWN, timer.lap());
+            phaseReport.add(timings);
+            timings = null;
+            logApiMetrics(client, event.getTestClass());
+        }
+    }
+
+    private void logApiMetrics(OpenShiftAdapter client, TestClass testClass) {
+        ApiMetrics metrics = client.getApiMetrics();
+        log.info(String.format("API calls for %s:\n%s", testClass.getName(), metrics.summary()));
+        metrics.reset(); // per test class
     }
 
     private void deleteEnvironment(final TestClass testClass, OpenShiftAdapter client, CECubeConfiguration configuration) throws Exception {
@@ -0,0 +1,103 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.arquillian.ce.cube;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import org.jboss.arquillian.ce.cube.PhaseTimings.Phase;
+import org.jboss.arquillian.ce.utils.Strings;
+import org.jboss.dmr.ModelNode;
+
+/**
+ * Phase timings of all test classes so far, (re)written as JSON and CSV after each class,
+ * so the report is complete even if the suite is killed.
+ */
+class PhaseReport {
+    private static final Logger log = Logger.getLogger(PhaseReport.class.getName());
+
+    private static final String REPORT_DIR = Strings.getSystemPropertyOrEnvVar("arquillian.phases.report.dir", "target");
+    private static final String REPORT_NAME = "ce-arq-phases";
+
+    private final List<PhaseTimings> timings = new ArrayList<>();
+
+    synchronized void add(PhaseTimings classTimings) {
+        timings.add(classTimings);
+        log.info(String.format("Phase timings of %s", classTimings));
+        try {
+            write();
+        } catch (IOException e) {
+            log.warning(String.format("Cannot write phase timings report: %s", e));
+        }
+    }
+
+    private void write() throws IOException {
+        File dir = new File(REPORT_DIR);
+        if (dir.exists() == false && dir.mkdirs() == false) {
+            throw new IOException(String.format("Cannot create report dir: %s", dir));
+        }
+
+        ModelNode json = new ModelNode().setEmptyList();
+        StringBuilder csv = new StringBuilder("testClass");
+        for (Phase phase : Phase.values()) {
+            csv.append(',').append(phase.label());
+        }
+        csv.append(",total\n");
+
+        for (PhaseTimings classTimings : timings) {
+            ModelNode node = new ModelNode();
+            node.get("testClass").set(classTimings.getTestClass());
+            csv.append(classTimings.getTestClass());
+            for (Phase phase : Phase.values()) {
+                long millis = millis(classTimings.getNanos(phase));
+                node.get("phases", phase.label()).set(millis);
+                csv.append(',').append(millis);
+            }
+            long total = millis(classTimings.getTotalNanos());
+            node.get("total").set(total);
+            csv.append(',').append(total).append('\n');
+            json.add(node);
+        }
+
+        write(new File(dir, REPORT_NAME + ".json"), json.toJSONString(false));
+        write(new File(dir, REPORT_NAME + ".csv"), csv.toString());
+    }
+
+    private static long millis(long nanos) {
+        return nanos / 1000000L;
+    }
+
+    private static void write(File file, String content) throws IOException {
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            writer.write(content);
+        }
+    }
+}
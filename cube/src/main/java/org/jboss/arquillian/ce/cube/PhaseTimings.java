@@ -0,0 +1,88 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.arquillian.ce.cube;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Time spent per environment lifecycle phase, for a single test class.
+ */
+public class PhaseTimings {
+    public enum Phase {
+        RESOURCES,
+        TEMPLATES,
+        READINESS,
+        ROUTES,
+        TEARDOWN;
+
+        public String label() {
+            return name().toLowerCase();
+        }
+    }
+
+    private final String testClass;
+    private final Map<Phase, Long> nanos = new EnumMap<>(Phase.class);
+
+    public PhaseTimings(String testClass) {
+        this.testClass = testClass;
+    }
+
+    public String getTestClass() {
+        return testClass;
+    }
+
+    /**
+     * Phases may run more than once, e.g. a readiness wait per template; times add up.
+     */
+    public synchronized void add(Phase phase, long nanos) {
+        Long previous = this.nanos.get(phase);
+        this.nanos.put(phase, previous == null ? nanos : previous + nanos);
+    }
+
+    /**
+     * @return time spent in the phase, in ns; 0 if the phase didn't run
+     */
+    public synchronized long getNanos(Phase phase) {
+        Long value = nanos.get(phase);
+        return value == null ? 0 : value;
+    }
+
+    public synchronized long getTotalNanos() {
+        long total = 0;
+        for (Long value : nanos.values()) {
+            total += value;
+        }
+        return total;
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder builder = new StringBuilder(testClass).append(":");
+        for (Map.Entry<Phase, Long> entry : nanos.entrySet()) {
+            builder.append(String.format(" %s=%.1fs", entry.getKey().label(), entry.getValue() / 1e9));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,192 @@
+package org.jboss.arquillian.ce.cube.oauth;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import io.fabric8.utils.Base64Encoder;
+import org.jboss.arquillian.ce.httpclient.HttpClient;
+import org.jboss.arquillian.ce.httpclient.HttpClientBuilder;
+import org.jboss.arquillian.ce.httpclient.HttpRequest;
+import org.jboss.arquillian.ce.httpclient.HttpResponse;
+import org.jboss.arquillian.ce.utils.Strings;
+
+/**
+ * Caches OAuth tokens per (url, user) and refreshes them ahead of their expiry.
+ * <p/>
+ * The token request page does not tell us the token's lifetime,
+ * so we use the configured max age (OpenShift's default is 24h).
+ */
+public class OauthTokenProvider {
+    private static final Logger log = Logger.getLogger(OauthTokenProvider.class.getName());
+
+    private static final String TOKEN_REQUEST_URI = "oauth/token/request?client_id=openshift-challenging-client";
+    private static final String CODE_START = "<code>";
+    private static final String CODE_END = "</code>";
+
+    private final ConcurrentMap<String, Entry> tokens = new ConcurrentHashMap<>();
+    private final long maxAge;
+    private final long refreshAhead;
+    private HttpClient client;
+
+    public OauthTokenProvider() {
+        this(Long.parseLong(Strings.getSystemPropertyOrEnvVar("openshift.oauth.token.max.age", "86400")),
+            Long.parseLong(Strings.getSystemPropertyOrEnvVar("openshift.oauth.token.refresh.ahead", "300")));
+    }
+
+    /**
+     * @param maxAge       token lifetime in seconds
+     * @param refreshAhead refresh the token this many seconds before it expires
+     */
+    public OauthTokenProvider(long maxAge, long refreshAhead) {
+        if (refreshAhead >= maxAge) {
+            throw new IllegalArgumentException(String.format("Refresh ahead (%ss) must be smaller than token max age (%ss)", refreshAhead, maxAge));
+        }
+        this.maxAge = TimeUnit.SECONDS.toNanos(maxAge);
+        this.refreshAhead = TimeUnit.SECONDS.toNanos(refreshAhead);
+    }
+
+    public String getToken(String url, String username, String password) throws Exception {
+        // the password is part of the key, so a changed password never gets a token issued for the old one
+        String key = toKey(url, username) + digest(password);
+        Entry entry = tokens.get(key);
+        if (entry == null) {
+            Entry newEntry = new Entry();
+            entry = tokens.putIfAbsent(key, newEntry);
+            if (entry == null) {
+                entry = newEntry;
+            }
+        }
+        Token token = entry.token;
+        if (token != null && token.isFresh()) {
+            return token.value;
+        }
+        // only requests for the same url, user and password wait for each other
+        synchronized (entry) {
+            token = entry.token;
+            if (token == null || token.isFresh() == false) {
+                token = new Token(requestToken(url, username, password), System.nanoTime() + maxAge - refreshAhead);
+                entry.token = token;
+            }
+            return token.value;
+        }
+    }
+
+    /**
+     * Drop cached tokens of the user, e.g. after one was rejected by the server.
+     */
+    public void invalidate(String url, String username) {
+        String prefix = toKey(url, username);
+        Iterator<String> keys = tokens.keySet().iterator();
+        while (keys.hasNext()) {
+            if (keys.next().startsWith(prefix)) {
+                keys.remove();
+            }
+        }
+    }
+
+    public void clear() {
+        tokens.clear();
+    }
+
+    private static String toKey(String url, String username) {
+        return url + "|" + username + "|";
+    }
+
+    private static String digest(String password) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        byte[] bytes = digest.digest(String.valueOf(password).getBytes(StandardCharsets.UTF_8));
+        return String.format("%064x", new BigInteger(1, bytes));
+    }
+
+    private String requestToken(String url, String username, String password) throws Exception {
+        log.info("Issuing a new token for user: " + username);
+
+        HttpRequest request = HttpClientBuilder.doGET(url + "/" + TOKEN_REQUEST_URI);
+        request.setHeader("Authorization", "Basic " + Base64Encoder.encode(username + ":" + password));
+
+        HttpResponse response = getClient().execute(request);
+        String token;
+        try (Reader reader = new BufferedReader(new InputStreamReader(response.getResponseAsStream(), StandardCharsets.UTF_8))) {
+            token = readCode(reader);
+        }
+        if (token == null) {
+            throw new IllegalStateException(String.format("No token found in response from %s [%s]", url, response.getResponseCode()));
+        }
+        log.info("Got token: " + token);
+        return token;
+    }
+
+    private synchronized HttpClient getClient() throws Exception {
+        if (client == null) {
+            client = HttpClientBuilder.untrustedConnectionClient();
+        }
+        return client;
+    }
+
+    /**
+     * Streams the (buffered) response, returning the content of the first &lt;code&gt; element;
+     * we stop reading as soon as the closing tag is seen.
+     */
+    static String readCode(Reader reader) throws IOException {
+        if (skipTo(reader, CODE_START, null) == false) {
+            return null;
+        }
+        StringBuilder code = new StringBuilder();
+        return skipTo(reader, CODE_END, code) ? code.toString() : null;
+    }
+
+    /**
+     * Single pass matcher; it relies on the tag's first char not re-appearing inside the tag.
+     */
+    private static boolean skipTo(Reader reader, String tag, StringBuilder collector) throws IOException {
+        int matched = 0;
+        int x;
+        while ((x = reader.read()) != -1) {
+            char ch = (char) x;
+            if (ch == tag.charAt(matched)) {
+                matched++;
+                if (matched == tag.length()) {
+                    return true;
+                }
+            } else {
+                if (collector != null) {
+                    collector.append(tag, 0, matched);
+                }
+                matched = (ch == tag.charAt(0)) ? 1 : 0;
+                if (matched == 0 && collector != null) {
+                    collector.append(ch);
+                }
+            }
+        }
+        return false;
+    }
+
+    private static class Entry {
+        private volatile Token token;
+    }
+
+    private static class Token {
+        private final String value;
+        private final long refreshAt;
+
+        private Token(String value, long refreshAt) {
+            this.value = value;
+            this.refreshAt = refreshAt;
+        }
+
+        private boolean isFresh() {
+            return System.nanoTime() - refreshAt < 0;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.arquillian.ce.fabric8;
+
+import java.io.OutputStream;
+
+import org.jboss.arquillian.ce.utils.ExecSession;
+
+import io.fabric8.kubernetes.clnt.v2_6.dsl.ExecListener;
+import io.fabric8.kubernetes.clnt.v2_6.dsl.ExecWatch;
+import io.fabric8.openshift.clnt.v2_6.NamespacedOpenShiftClient;
+import okhttp3.Response;
+
+/**
+ * Exec session over a single exec connection running sh.
+ */
+class F8ExecSession extends ExecSession {
+    private final ExecWatch watch;
+
+    F8ExecSession(NamespacedOpenShiftClient client, String namespace, String podName) {
+        super(podName);
+        this.watch = client.pods().inNamespace(namespace).withName(podName)
+            .redirectingInput()
+            .writingOutput(getOutputSink())
+            .writingError(getErrorSink())
+            .usingListener(new ExecListener() {
+                public void onOpen(Response response) {
+                }
+
+                public void onFailure(Throwable t, Response response) {
+                    sessionClosed();
+                }
+
+                public void onClose(int code, String reason) {
+                    sessionClosed();
+                }
+            })
+            .exec("sh");
+    }
+
+    protected OutputStream getInput() {
+        return watch.getInput();
+    }
+
+    public void close() {
+        sessionClosed();
+        watch.close();
+    }
+}
@@ -27,6 +27,7 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
@@ -36,20 +37,31 @@ import java.util.List;
 import java.util.Map;
 import java.util.StringTokenizer;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.logging.Level;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
 import org.jboss.arquillian.ce.adapter.AbstractOpenShiftAdapter;
 import org.jboss.arquillian.ce.api.MountSecret;
 import org.jboss.arquillian.ce.api.model.OpenShiftResource;
 import org.jboss.arquillian.ce.fabric8.model.F8DeploymentConfig;
+import org.jboss.arquillian.ce.instrumentation.Instrumentations;
+import org.jboss.arquillian.ce.instrumentation.Instrumented;
+import org.jboss.arquillian.ce.instrumentation.Operation;
+import org.jboss.arquillian.ce.instrumentation.OperationType;
+import org.jboss.arquillian.ce.metrics.ApiMetrics;
 import org.jboss.arquillian.ce.portfwd.PortForwardContext;
 import org.jboss.arquillian.ce.proxy.Proxy;
 import org.jboss.arquillian.ce.resources.OpenShiftResourceHandle;
 import org.jboss.arquillian.ce.utils.Checker;
 import org.jboss.arquillian.ce.utils.Configuration;
 import org.jboss.arquillian.ce.utils.Containers;
+import org.jboss.arquillian.ce.utils.ExecSession;
 import org.jboss.arquillian.ce.utils.HookType;
+import org.jboss.arquillian.ce.utils.OkHttpClientUtils;
 import org.jboss.arquillian.ce.utils.Operator;
 import org.jboss.arquillian.ce.utils.ParamValue;
 import org.jboss.arquillian.ce.utils.Port;
@@ -86,8 +98,10 @@ import io.fabric8.kubernetes.api.model.v2_6.ServiceAccount;
 import io.fabric8.kubernetes.api.model.v2_6.ServicePort;
 import io.fabric8.kubernetes.api.model.v2_6.Volume;
 import io.fabric8.kubernetes.api.model.v2_6.VolumeMount;
+import io.fabric8.kubernetes.clnt.v2_6.Adapters;
 import io.fabric8.kubernetes.clnt.v2_6.dsl.Deletable;
 import io.fabric8.kubernetes.clnt.v2_6.dsl.ExecListener;
+import io.fabric8.kubernetes.clnt.v2_6.dsl.ExecWatch;
 import io.fabric8.kubernetes.clnt.v2_6.dsl.NonNamespaceOperation;
 import io.fabric8.kubernetes.clnt.v2_6.dsl.PodResource;
 import io.fabric8.openshift.api.model.v2_6.Build;
@@ -110,6 +124,8 @@ import io.fabric8.openshift.clnt.v2_6.OpenShiftConfigBuilder;
 import io.fabric8.openshift.clnt.v2_6.ParameterValue;
 import io.fabric8.openshift.clnt.v2_6.dsl.DeployableScalableResource;
 import io.fabric8.openshift.clnt.v2_6.dsl.TemplateResource;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
 import okhttp3.Response;
 
 /**
@@ -138,50 +154,79 @@ public class F8OpenShiftAdapter extends AbstractOpenShiftAdapter {
         return new DefaultOpenShiftClient(config);
     }
 
+    /**
+     * The same client, with its API calls recorded; the proxy derives its client from it, so it records too.
+     */
+    static NamespacedOpenShiftClient instrument(NamespacedOpenShiftClient client, ApiMetrics metrics) {
+        OkHttpClient.Builder builder = Adapters.get(OkHttpClient.class).adapt(client).newBuilder();
+        OkHttpClientUtils.applyApiMetrics(builder, metrics);
+        return new DefaultOpenShiftClient(builder.build(), new OpenShiftConfig(client.getConfiguration()));
+    }
+
     public F8OpenShiftAdapter(Configuration configuration) {
         super(configuration);
-        this.client = create(configuration);
+        this.client = instrument(create(configuration), apiMetrics);
     }
 
     public F8OpenShiftAdapter(NamespacedOpenShiftClient client, Configuration configuration) {
         super(configuration);
-        this.client = client;
+        this.client = instrument(client, apiMetrics);
     }
 
     public String exec(Map<String, String> labels, int waitSeconds, String... input) throws Exception {
-        List<Pod> pods = client.inAnyNamespace().pods().withLabels(labels).list().getItems();
+        List<Pod> pods = client.pods().inNamespace(configuration.getNamespace()).withLabels(labels).list().getItems();
         if (pods.isEmpty()) {
             throw new IllegalStateException("No such pod: " + labels);
         }
         Pod targetPod = pods.get(0);
 
         ByteArrayOutputStream output = new ByteArrayOutputStream();
-        client.inNamespace(targetPod.getMetadata().getNamespace()).pods().withName(targetPod.getMetadata().getName())
-            .readingInput(System.in)
-            .writingOutput(output)
-            .writingError(System.err)
-            .withTTY()
-            .usingListener(new SimpleListener())
-            .exec(input);
+        try {
+            exec(targetPod.getMetadata().getName(), output, System.err, waitSeconds, TimeUnit.SECONDS, input);
+        } catch (TimeoutException e) {
+            log.warning(e.getMessage());
+        }
+        return output.toString();
+    }
 
-        Thread.sleep(waitSeconds * 1000);
+    protected boolean doExec(String podName, InputStream in, OutputStream out, OutputStream err, long timeout, TimeUnit unit, String... command) throws Exception {
+        ExecLatch latch = new ExecLatch();
+        try (ExecWatch watch = client.pods().inNamespace(configuration.getNamespace()).withName(podName)
+            .readingInput(in != null ? in : new ByteArrayInputStream(new byte[0]))
+            .writingOutput(out != null ? out : NullOutputStream.NULL_OUTPUT_STREAM)
+            .writingError(err != null ? err : NullOutputStream.NULL_OUTPUT_STREAM)
+            .usingListener(latch)
+            .exec(command)) {
+            return latch.await(timeout, unit);
+        }
+    }
 
-        output.flush();
-        return output.toString();
+    protected ExecSession createExecSession(String podName) throws Exception {
+        return new F8ExecSession(client, configuration.getNamespace(), podName);
     }
 
-    private static class SimpleListener implements ExecListener {
+    private static class ExecLatch implements ExecListener {
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private volatile Throwable failure;
+
         public void onOpen(Response response) {
-            System.out.println("Exec open");
         }
 
         public void onFailure(Throwable e, Response response) {
-            System.err.println("Exec failure");
-            e.printStackTrace();
+            failure = e;
+            latch.countDown();
         }
 
         public void onClose(int code, String reason) {
-            System.out.println("Exec close");
+            latch.countDown();
+        }
+
+        boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+            boolean done = latch.await(timeout, unit);
+            if (failure != null) {
+                throw new IllegalStateException("Exec failure", failure);
+            }
+            return done;
         }
     }
 
@@ -385,13 +430,23 @@ public class F8OpenShiftAdapter extends AbstractOpenShiftAdapter {
         }
     }
 
-    public List<? extends OpenShiftResource> processTemplateAndCreateResources(String templateKey, String templateURL, List<ParamValue> values, Map<String, String> labels) throws Exception {
-        List<ParameterValue> pvs = new ArrayList<>();
+    public List<? extends OpenShiftResource> processTemplateAndCreateResources(String templateKey, final String templateURL, List<ParamValue> values, final Map<String, String> labels) throws Exception {
+        final List<ParameterValue> pvs = new ArrayList<>();
         for (ParamValue value : values) {
             pvs.add(new ParameterValue(value.getName(), value.getValue()));
         }
-        KubernetesList list = processTemplate(templateURL, pvs, labels);
-        KubernetesList result = createResources(list);
+        final KubernetesList list = Instrumentations.call(OperationType.TEMPLATE_PROCESSING, templateURL, new Instrumented<KubernetesList, IOException>() {
+            public KubernetesList call(Operation operation) throws IOException {
+                operation.attribute(Operation.LABELS, labels);
+                return processTemplate(templateURL, pvs, labels);
+            }
+        });
+        KubernetesList result = Instrumentations.call(OperationType.RESOURCE_CREATION, templateKey, new Instrumented<KubernetesList, RuntimeException>() {
+            public KubernetesList call(Operation operation) {
+                operation.attribute(Operation.LABELS, labels).attribute(Operation.COUNT, list.getItems().size());
+                return createResources(list);
+            }
+        });
         templates.put(templateKey, result);
 
         List<PersistentVolumeClaim> claims = new ArrayList<>();
@@ -480,9 +535,14 @@ public class F8OpenShiftAdapter extends AbstractOpenShiftAdapter {
     }
 
     public Object deleteTemplate(String templateKey) throws Exception {
-        KubernetesList config = templates.get(templateKey);
+        final KubernetesList config = templates.get(templateKey);
         if (config != null) {
-            return client.lists().inNamespace(configuration.getNamespace()).delete(config);
+            return Instrumentations.call(OperationType.RESOURCE_DELETION, templateKey, new Instrumented<Object, RuntimeException>() {
+                public Object call(Operation operation) {
+                    operation.attribute(Operation.COUNT, config.getItems().size());
+                    return client.lists().inNamespace(configuration.getNamespace()).delete(config);
+                }
+            });
         }
         return config;
     }
@@ -504,6 +564,10 @@ public class F8OpenShiftAdapter extends AbstractOpenShiftAdapter {
             public void delete() {
                 client.roleBindings().inNamespace(configuration.getNamespace()).delete(roleBinding);
             }
+
+            public String toString() {
+                return describe(roleBinding);
+            }
         };
     }
 
@@ -558,6 +622,17 @@ public class F8OpenShiftAdapter extends AbstractOpenShiftAdapter {
         return client.pods().inNamespace(configuration.getNamespace()).withName(podName).watchLog().getOutput();
     }
 
+    public InputStream dumpLog(String podName) throws Exception {
+        String url = String.format("%s/api/%s/namespaces/%s/pods/%s/log", configuration.getKubernetesMaster(), configuration.getApiVersion(), configuration.getNamespace(), podName);
+        OkHttpClient httpClient = Adapters.get(OkHttpClient.class).adapt(client);
+        Response response = httpClient.newCall(new Request.Builder().url(url).build()).execute();
+        if (response.isSuccessful() == false) {
+            response.body().close();
+            throw new IllegalStateException(String.format("Cannot read log of pod %s: %s", podName, response.code()));
+        }
+        return response.body().byteStream();
+    }
+
     public String getLog(String prefix, Map<String, String> labels) throws Exception {
         List<Pod> pods;
         NonNamespaceOperation<Pod, PodList, DoneablePod, PodResource<Pod, DoneablePod>> allPods = client.pods().inNamespace(configuration.getNamespace());
@@ -721,7 +796,10 @@ public class F8OpenShiftAdapter extends AbstractOpenShiftAdapter {
     }
 
     public void close() throws IOException {
+        reportOrphanResources();
         templates.clear();
+        closeExecSessions();
+        closeProxy();
         if (client != null) {
             client.close();
         }
@@ -771,6 +849,10 @@ public class F8OpenShiftAdapter extends AbstractOpenShiftAdapter {
         throw new IllegalArgumentException("No such port: " + name);
     }
 
+    private static String describe(HasMetadata resource) {
+        return resource.getKind() + "/" + resource.getMetadata().getName();
+    }
+
     private abstract class AbstractOpenShiftResourceHandle<T> implements OpenShiftResourceHandle {
         protected final T resource;
 
@@ -779,6 +861,10 @@ public class F8OpenShiftAdapter extends AbstractOpenShiftAdapter {
         }
 
         protected abstract T createResource(InputStream stream);
+
+        public String toString() {
+            return (resource instanceof HasMetadata) ? describe((HasMetadata) resource) : String.valueOf(resource);
+        }
     }
 
     private class ListOpenShiftResourceHandle extends AbstractOpenShiftResourceHandle<KubernetesList> {
@@ -793,6 +879,14 @@ public class F8OpenShiftAdapter extends AbstractOpenShiftAdapter {
         public void delete() {
             client.lists().inNamespace(configuration.getNamespace()).delete(resource);
         }
+
+        public String toString() {
+            List<String> items = new ArrayList<>();
+            for (HasMetadata item : resource.getItems()) {
+                items.add(describe(item));
+            }
+            return "List" + items;
+        }
     }
 
     private class SecretOpenShiftResourceHandle extends AbstractOpenShiftResourceHandle<Secret> {
@@ -23,8 +23,11 @@
 
 package org.jboss.arquillian.ce.fabric8;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import javax.net.ssl.SSLContext;
 
@@ -32,6 +35,9 @@ import io.fabric8.kubernetes.api.model.v2_6.Pod;
 import io.fabric8.kubernetes.api.model.v2_6.PodCondition;
 import io.fabric8.kubernetes.api.model.v2_6.PodStatus;
 import io.fabric8.kubernetes.clnt.v2_6.Adapters;
+import io.fabric8.kubernetes.clnt.v2_6.KubernetesClientException;
+import io.fabric8.kubernetes.clnt.v2_6.Watch;
+import io.fabric8.kubernetes.clnt.v2_6.Watcher;
 import io.fabric8.kubernetes.clnt.v2_6.internal.SSLUtils;
 import io.fabric8.openshift.clnt.v2_6.OpenShiftClient;
 import io.fabric8.openshift.clnt.v2_6.NamespacedOpenShiftClient;
@@ -44,8 +50,11 @@ import org.jboss.arquillian.ce.utils.OkHttpClientUtils;
  * @author <a href="mailto:ales.justin@jboss.org">Ales Justin</a>
  */
 public class F8Proxy extends AbstractProxy<Pod> {
+    private static final Logger log = Logger.getLogger(F8Proxy.class.getName());
+
     private final OpenShiftClient client;
     private OkHttpClient httpClient;
+    private Watch podsWatch;
 
     public F8Proxy(Configuration configuration, NamespacedOpenShiftClient client) {
         super(configuration);
@@ -63,7 +72,7 @@ public class F8Proxy extends AbstractProxy<Pod> {
     protected synchronized OkHttpClient getHttpClient() {
         if (httpClient == null) {
             OkHttpClient okHttpClient = Adapters.get(OkHttpClient.class).adapt(client);
-            OkHttpClient.Builder builder = okHttpClient.newBuilder(); // clone
+            OkHttpClient.Builder builder = okHttpClient.newBuilder(); // clone, incl. the adapter's API metrics interceptor
             OkHttpClientUtils.applyConnectTimeout(builder, configuration.getHttpClientTimeout());
             OkHttpClientUtils.applyCookieJar(builder);
             httpClient = builder.build();
@@ -75,6 +84,32 @@ public class F8Proxy extends AbstractProxy<Pod> {
         return client.pods().inNamespace(configuration.getNamespace()).withLabels(labels).list().getItems();
     }
 
+    @Override
+    protected synchronized void watchPods() {
+        try {
+            podsWatch = client.pods().inNamespace(configuration.getNamespace()).watch(new Watcher<Pod>() {
+                public void eventReceived(Action action, Pod pod) {
+                    invalidatePods();
+                }
+
+                public void onClose(KubernetesClientException cause) {
+                    podsWatchClosed();
+                }
+            });
+        } catch (Exception e) {
+            log.log(Level.WARNING, "Cannot watch pods, pod cache only relies on TTL: " + e, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        super.close(); // first, so closing the watch doesn't re-open it
+        if (podsWatch != null) {
+            podsWatch.close();
+            podsWatch = null;
+        }
+    }
+
     protected String getName(Pod pod) {
         return pod.getMetadata().getName();
     }
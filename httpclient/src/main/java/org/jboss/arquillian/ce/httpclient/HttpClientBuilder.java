@@ -23,20 +23,9 @@
 
 package org.jboss.arquillian.ce.httpclient;
 
-import javax.net.ssl.HostnameVerifier;
-import javax.net.ssl.SSLContext;
-
 import org.apache.http.client.CookieStore;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
-import org.apache.http.config.Registry;
-import org.apache.http.config.RegistryBuilder;
-import org.apache.http.conn.socket.ConnectionSocketFactory;
-import org.apache.http.conn.socket.PlainConnectionSocketFactory;
-import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
-import org.apache.http.conn.ssl.SSLContextBuilder;
-import org.apache.http.conn.ssl.TrustStrategy;
-import org.apache.http.conn.ssl.X509HostnameVerifier;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 
 /**
@@ -82,33 +71,14 @@ public class HttpClientBuilder {
     }
 
     public HttpClientBuilder untrustedConnectionClientBuilder() throws Exception {
-        // setup a Trust Strategy that allows all certificates.
-        //
-        SSLContext sslContext = new SSLContextBuilder().loadTrustMaterial(null, new TrustStrategy() {
-            public boolean isTrusted(java.security.cert.X509Certificate[] x509Certificates, String s) throws java.security.cert.CertificateException {
-                return true;
-            }
-
-        }).build();
-        builder.setSslcontext(sslContext);
-
-        // don't check Hostnames, either.
-        //      -- use SSLConnectionSocketFactory.getDefaultHostnameVerifier(), if you don't want to weaken
-        HostnameVerifier hostnameVerifier = SSLConnectionSocketFactory.ALLOW_ALL_HOSTNAME_VERIFIER;
-
-        // here's the special part:
-        //      -- need to create an SSL Socket Factory, to use our weakened "trust strategy";
-        //      -- and create a Registry, to register it.
-        //
-        SSLConnectionSocketFactory sslSocketFactory = new SSLConnectionSocketFactory(sslContext, (X509HostnameVerifier) hostnameVerifier);
-        Registry<ConnectionSocketFactory> socketFactoryRegistry = RegistryBuilder.<ConnectionSocketFactory>create()
-            .register("http", PlainConnectionSocketFactory.getSocketFactory())
-            .register("https", sslSocketFactory)
-            .build();
+        // setup a Trust Strategy that allows all certificates, and don't check Hostnames, either.
+        //      -- the SSLContext and socket factories are created once and shared,
+        //      -- so TLS sessions are resumed across clients instead of doing a full handshake every time
+        builder.setSslcontext(UntrustedSSLContext.getSSLContext());
 
         // now, we create connection-manager using our Registry.
         //      -- allows multi-threaded use
-        PoolingHttpClientConnectionManager connMgr = new PoolingHttpClientConnectionManager(socketFactoryRegistry);
+        PoolingHttpClientConnectionManager connMgr = new PoolingHttpClientConnectionManager(UntrustedSSLContext.getSocketFactoryRegistry());
         builder.setConnectionManager(connMgr);
 
         // finally, build the HttpClient;
@@ -0,0 +1,111 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2017 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.arquillian.ce.httpclient;
+
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+
+/**
+ * Shared "trust all" TLS setup.
+ * <p/>
+ * The SSLContext (and with it the client TLS session cache) is created once per JVM,
+ * so clients built later can resume sessions instead of doing a full handshake.
+ */
+final class UntrustedSSLContext {
+    private static final int SESSION_CACHE_SIZE = getIntProperty("arquillian.http.client.ssl.session.cache.size", 1024);
+    private static final int SESSION_TIMEOUT = getIntProperty("arquillian.http.client.ssl.session.timeout", 3600); // seconds
+
+    private static final X509TrustManager TRUST_ALL = new X509TrustManager() {
+        public void checkClientTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+        }
+
+        public void checkServerTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+        }
+
+        public X509Certificate[] getAcceptedIssuers() {
+            return new X509Certificate[0];
+        }
+    };
+
+    private UntrustedSSLContext() {
+    }
+
+    static SSLContext getSSLContext() {
+        return Holder.SSL_CONTEXT;
+    }
+
+    static Registry<ConnectionSocketFactory> getSocketFactoryRegistry() {
+        return Holder.REGISTRY;
+    }
+
+    /**
+     * Same lookup as Strings::getSystemPropertyOrEnvVar in utils, which this module doesn't depend on.
+     */
+    private static int getIntProperty(String key, int defaultValue) {
+        String value = System.getProperty(key);
+        if (value == null || value.isEmpty()) {
+            value = System.getenv(key.toUpperCase().replaceAll("[.-]", "_"));
+        }
+        return (value != null) ? Integer.parseInt(value) : defaultValue;
+    }
+
+    private static SSLContext createSSLContext() {
+        try {
+            SSLContext sslContext = SSLContext.getInstance("TLS");
+            sslContext.init(null, new TrustManager[]{TRUST_ALL}, null);
+            SSLSessionContext sessionContext = sslContext.getClientSessionContext();
+            sessionContext.setSessionCacheSize(SESSION_CACHE_SIZE);
+            sessionContext.setSessionTimeout(SESSION_TIMEOUT);
+            return sslContext;
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot create untrusted SSLContext", e);
+        }
+    }
+
+    /**
+     * Lazy holder, so we only pay for the setup if an untrusted client is actually used.
+     */
+    private static class Holder {
+        private static final SSLContext SSL_CONTEXT = createSSLContext();
+
+        // don't check Hostnames, either.
+        private static final SSLConnectionSocketFactory SSL_SOCKET_FACTORY = new SSLConnectionSocketFactory(SSL_CONTEXT, SSLConnectionSocketFactory.ALLOW_ALL_HOSTNAME_VERIFIER);
+
+        private static final Registry<ConnectionSocketFactory> REGISTRY = RegistryBuilder.<ConnectionSocketFactory>create()
+            .register("http", PlainConnectionSocketFactory.getSocketFactory())
+            .register("https", SSL_SOCKET_FACTORY)
+            .build();
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.arquillian.ce.jfr;
+
+import org.jboss.arquillian.ce.instrumentation.Instrumentation;
+import org.jboss.arquillian.ce.instrumentation.Operation;
+import org.jboss.arquillian.ce.instrumentation.OperationType;
+import org.kohsuke.MetaInfServices;
+
+/**
+ * Emits ce-arq operations as JFR events, so a recording shows them next to GC and thread data.
+ * Events are only created and committed while a recording has them enabled.
+ */
+@MetaInfServices(Instrumentation.class)
+public class JfrInstrumentation implements Instrumentation {
+    public Operation start(OperationType type, String name) {
+        CeArqEvent event = create(type);
+        if (event.isEnabled() == false) {
+            return Operation.NOOP;
+        }
+        event.name = name;
+        event.begin();
+        return new JfrOperation(event);
+    }
+
+    private static CeArqEvent create(OperationType type) {
+        switch (type) {
+            case TEMPLATE_PROCESSING:
+                return new TemplateProcessingEvent();
+            case RESOURCE_CREATION:
+                return new ResourceCreationEvent();
+            case RESOURCE_DELETION:
+                return new ResourceDeletionEvent();
+            case READINESS_WAIT:
+                return new ReadinessWaitEvent();
+            case PROXY_INVOCATION:
+                return new ProxyInvocationEvent();
+            case PORT_FORWARD:
+                return new PortForwardEvent();
+            case JOLOKIA:
+                return new JolokiaEvent();
+            default:
+                throw new IllegalArgumentException("Unknown operation type: " + type);
+        }
+    }
+
+    private static class JfrOperation implements Operation {
+        private final CeArqEvent event;
+
+        private JfrOperation(CeArqEvent event) {
+            this.event = event;
+        }
+
+        public Operation attribute(String key, Object value) {
+            event.set(key, value);
+            return this;
+        }
+
+        public void failed(Throwable cause) {
+            event.failure = String.valueOf(cause);
+        }
+
+        public void close() {
+            event.end();
+            if (event.shouldCommit()) {
+                event.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.arquillian.ce.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import org.jboss.arquillian.ce.instrumentation.Operation;
+
+@Name("org.jboss.arquillian.ce.ReadinessWait")
+@Label("Readiness Wait")
+@Description("Waiting for pods to become ready")
+class ReadinessWaitEvent extends CeArqEvent {
+    @Label("Labels")
+    String labels;
+
+    @Label("Replicas")
+    int replicas;
+
+    @Label("Polls")
+    @Description("Number of pod readiness checks")
+    int polls;
+
+    @Override
+    void set(String key, Object value) {
+        if (Operation.LABELS.equals(key)) {
+            labels = String.valueOf(value);
+        } else if (Operation.COUNT.equals(key)) {
+            replicas = ((Number) value).intValue();
+        } else if (Operation.POLLS.equals(key)) {
+            polls = ((Number) value).intValue();
+        }
+    }
+}
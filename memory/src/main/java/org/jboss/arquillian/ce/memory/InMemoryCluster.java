@@ -0,0 +1,503 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.arquillian.ce.memory;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import org.jboss.arquillian.ce.utils.Strings;
+import org.jboss.dmr.ModelNode;
+
+/**
+ * Simulated OpenShift cluster state: pods, deployment and replication controllers, and any other resources.
+ * <p>
+ * Controllers keep their replicas of pods, which become ready after a configurable delay;
+ * HTTP requests and commands sent to pods are answered by pluggable handlers.
+ */
+public class InMemoryCluster {
+    private static final Logger log = Logger.getLogger(InMemoryCluster.class.getName());
+
+    private static final long DEFAULT_READINESS_DELAY = Long.parseLong(Strings.getSystemPropertyOrEnvVar("arquillian.memory.readiness.delay", "0")); // ms, before INSTANCE which reads it
+    private static final InMemoryCluster INSTANCE = new InMemoryCluster();
+
+    public static final String DEPLOYMENT_CONFIG = "DeploymentConfig";
+    public static final String REPLICATION_CONTROLLER = "ReplicationController";
+
+    /**
+     * Answers HTTP requests proxied to pods.
+     */
+    public interface HttpHandler {
+        /**
+         * @return the response body, null for 404
+         */
+        byte[] handle(String podName, int port, String path, byte[] body) throws Exception;
+    }
+
+    /**
+     * Runs commands exec-ed in pods.
+     */
+    public interface ExecHandler {
+        /**
+         * @return the exit code
+         */
+        int exec(String podName, String[] command, InputStream in, OutputStream out, OutputStream err) throws Exception;
+    }
+
+    private final ConcurrentMap<String, Pod> pods = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Controller> controllers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Resource> resources = new ConcurrentHashMap<>();
+    private final Set<String> projects = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private final ConcurrentMap<String, Long> readinessDelays = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private volatile long readinessDelay = DEFAULT_READINESS_DELAY;
+    private volatile HttpHandler httpHandler;
+    private volatile ExecHandler execHandler;
+
+    public static InMemoryCluster getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Forget everything, incl. handlers and delays.
+     */
+    public synchronized void reset() {
+        for (Pod pod : pods.values()) {
+            pod.log.end();
+        }
+        pods.clear();
+        controllers.clear();
+        resources.clear();
+        projects.clear();
+        readinessDelays.clear();
+        readinessDelay = DEFAULT_READINESS_DELAY;
+        httpHandler = null;
+        execHandler = null;
+    }
+
+    // configuration
+
+    /**
+     * @param delay time in ms for new pods to become ready
+     */
+    public void setReadinessDelay(long delay) {
+        this.readinessDelay = delay;
+    }
+
+    /**
+     * @param controllerPrefix the controller name prefix
+     * @param delay            time in ms for the controller's new pods to become ready
+     */
+    public void setReadinessDelay(String controllerPrefix, long delay) {
+        readinessDelays.put(controllerPrefix, delay);
+    }
+
+    public void setHttpHandler(HttpHandler httpHandler) {
+        this.httpHandler = httpHandler;
+    }
+
+    public HttpHandler getHttpHandler() {
+        return httpHandler;
+    }
+
+    public void setExecHandler(ExecHandler execHandler) {
+        this.execHandler = execHandler;
+    }
+
+    public ExecHandler getExecHandler() {
+        return execHandler;
+    }
+
+    // projects
+
+    public boolean addProject(String name) {
+        return projects.add(name);
+    }
+
+    public boolean removeProject(String name) {
+        return projects.remove(name);
+    }
+
+    // pods
+
+    public synchronized Pod createPod(String name, Map<String, String> labels) {
+        return addPod(name, labels, null);
+    }
+
+    private Pod addPod(String name, Map<String, String> labels, Controller controller) {
+        long delay = readinessDelay;
+        if (controller != null) {
+            for (Map.Entry<String, Long> entry : readinessDelays.entrySet()) {
+                if (controller.name.startsWith(entry.getKey())) {
+                    delay = entry.getValue();
+                }
+            }
+        }
+        Pod pod = new Pod(name, labels, controller, sequence.incrementAndGet(), System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay));
+        pods.put(name, pod);
+        return pod;
+    }
+
+    public Pod getPod(String name) {
+        Pod pod = pods.get(name);
+        if (pod == null) {
+            throw new IllegalArgumentException("No such pod: " + name);
+        }
+        return pod;
+    }
+
+    /**
+     * @param selector the labels, null for all pods
+     * @return matching pods, in creation order
+     */
+    public List<Pod> getPods(Map<String, String> selector) {
+        List<Pod> list = new ArrayList<>();
+        for (Pod pod : pods.values()) {
+            if (matches(pod.labels, selector)) {
+                list.add(pod);
+            }
+        }
+        Collections.sort(list, new Comparator<Pod>() {
+            public int compare(Pod p1, Pod p2) {
+                return Long.compare(p1.sequence, p2.sequence);
+            }
+        });
+        return list;
+    }
+
+    /**
+     * Delete pod; its controller, if any, replaces it.
+     */
+    public synchronized boolean deletePod(String name) {
+        Pod pod = pods.remove(name);
+        if (pod == null) {
+            return false;
+        }
+        pod.log.end();
+        if (pod.controller != null && controllers.containsValue(pod.controller)) {
+            reconcile(pod.controller);
+        }
+        return true;
+    }
+
+    public void appendLog(String podName, String line) {
+        getPod(podName).log.append(line);
+    }
+
+    // controllers
+
+    public synchronized Controller createController(String kind, String name, Map<String, String> labels, Map<String, String> selector, Map<String, String> podLabels, int replicas) {
+        Controller controller = new Controller(kind, name, labels, selector, podLabels, replicas);
+        controllers.put(key(kind, name), controller);
+        reconcile(controller);
+        return controller;
+    }
+
+    public Controller getController(String kind, String name) {
+        return controllers.get(key(kind, name));
+    }
+
+    public List<Controller> getControllers(String kind) {
+        List<Controller> list = new ArrayList<>();
+        for (Controller controller : controllers.values()) {
+            if (controller.kind.equals(kind)) {
+                list.add(controller);
+            }
+        }
+        return list;
+    }
+
+    public synchronized void scale(Controller controller, int replicas) {
+        controller.replicas = replicas;
+        reconcile(controller);
+    }
+
+    /**
+     * New version of the controller's pods, replacing all existing ones.
+     */
+    public synchronized void rollout(Controller controller, Map<String, String> env) {
+        if (env != null) {
+            controller.env.putAll(env);
+        }
+        controller.version++;
+        for (Pod pod : getPods(controller)) {
+            pods.remove(pod.name);
+            pod.log.end();
+        }
+        reconcile(controller);
+    }
+
+    public synchronized boolean deleteController(String kind, String name) {
+        Controller controller = controllers.remove(key(kind, name));
+        if (controller == null) {
+            return false;
+        }
+        for (Pod pod : getPods(controller)) {
+            pods.remove(pod.name);
+            pod.log.end();
+        }
+        return true;
+    }
+
+    private List<Pod> getPods(Controller controller) {
+        List<Pod> list = new ArrayList<>();
+        for (Pod pod : getPods(controller.selector)) {
+            if (pod.controller == controller) {
+                list.add(pod);
+            }
+        }
+        return list;
+    }
+
+    private void reconcile(Controller controller) {
+        List<Pod> current = getPods(controller);
+        for (int i = current.size(); i < controller.replicas; i++) {
+            String name = String.format("%s-%s-%05d", controller.name, controller.version, sequence.get() + 1);
+            addPod(name, controller.podLabels, controller);
+        }
+        for (int i = current.size() - 1; i >= controller.replicas; i--) {
+            Pod pod = current.get(i);
+            pods.remove(pod.name);
+            pod.log.end();
+        }
+        log.fine(String.format("Reconciled %s %s to %s replicas", controller.kind, controller.name, controller.replicas));
+    }
+
+    // other resources
+
+    public Resource addResource(String kind, String name, Map<String, String> labels, ModelNode json) {
+        Resource resource = new Resource(kind, name, labels, json);
+        resources.put(key(kind, name), resource);
+        return resource;
+    }
+
+    public Resource getResource(String kind, String name) {
+        return resources.get(key(kind, name));
+    }
+
+    public List<Resource> getResources(String kind) {
+        List<Resource> list = new ArrayList<>();
+        for (Resource resource : resources.values()) {
+            if (resource.kind.equals(kind)) {
+                list.add(resource);
+            }
+        }
+        return list;
+    }
+
+    public boolean removeResource(String kind, String name) {
+        return resources.remove(key(kind, name)) != null;
+    }
+
+    /**
+     * Delete any kind of object.
+     */
+    public synchronized boolean delete(String kind, String name) {
+        if (DEPLOYMENT_CONFIG.equals(kind) || REPLICATION_CONTROLLER.equals(kind)) {
+            return deleteController(kind, name);
+        } else if ("Pod".equals(kind)) {
+            return deletePod(name);
+        } else {
+            return removeResource(kind, name);
+        }
+    }
+
+    /**
+     * Delete all objects matching labels.
+     */
+    public synchronized void deleteAll(Map<String, String> selector) {
+        for (Controller controller : new ArrayList<>(controllers.values())) {
+            if (matches(controller.labels, selector)) {
+                deleteController(controller.kind, controller.name);
+            }
+        }
+        for (Pod pod : getPods(selector)) {
+            pods.remove(pod.name);
+            pod.log.end();
+        }
+        for (Resource resource : new ArrayList<>(resources.values())) {
+            if (matches(resource.labels, selector)) {
+                removeResource(resource.kind, resource.name);
+            }
+        }
+    }
+
+    private static String key(String kind, String name) {
+        return kind + "/" + name;
+    }
+
+    static boolean matches(Map<String, String> labels, Map<String, String> selector) {
+        if (selector == null) {
+            return true;
+        }
+        for (Map.Entry<String, String> entry : selector.entrySet()) {
+            if (entry.getValue().equals(labels.get(entry.getKey())) == false) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Map<String, String> copy(Map<String, String> map) {
+        return map == null ? Collections.<String, String>emptyMap() : Collections.unmodifiableMap(new HashMap<>(map));
+    }
+
+    public static class Pod {
+        private final String name;
+        private final Map<String, String> labels;
+        private final Controller controller;
+        private final long sequence;
+        private final long readyAt;
+        final PodLog log = new PodLog();
+
+        private Pod(String name, Map<String, String> labels, Controller controller, long sequence, long readyAt) {
+            this.name = name;
+            this.labels = copy(labels);
+            this.controller = controller;
+            this.sequence = sequence;
+            this.readyAt = readyAt;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Map<String, String> getLabels() {
+            return labels;
+        }
+
+        public Controller getController() {
+            return controller;
+        }
+
+        public boolean isReady() {
+            return System.nanoTime() - readyAt >= 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Pod[%s]", name);
+        }
+    }
+
+    public static class Controller {
+        private final String kind;
+        private final String name;
+        private final Map<String, String> labels;
+        private final Map<String, String> selector;
+        private final Map<String, String> podLabels;
+        private final Map<String, String> env = new ConcurrentHashMap<>();
+        private volatile int replicas;
+        private volatile int version = 1;
+
+        private Controller(String kind, String name, Map<String, String> labels, Map<String, String> selector, Map<String, String> podLabels, int replicas) {
+            this.kind = kind;
+            this.name = name;
+            this.labels = copy(labels);
+            this.selector = copy(selector);
+            this.podLabels = copy(podLabels);
+            this.replicas = replicas;
+        }
+
+        public String getKind() {
+            return kind;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Map<String, String> getLabels() {
+            return labels;
+        }
+
+        public Map<String, String> getSelector() {
+            return selector;
+        }
+
+        public Map<String, String> getEnv() {
+            return env;
+        }
+
+        public int getReplicas() {
+            return replicas;
+        }
+
+        public int getVersion() {
+            return version;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s[%s]", kind, name);
+        }
+    }
+
+    public static class Resource {
+        private final String kind;
+        private final String name;
+        private final Map<String, String> labels;
+        private final ModelNode json;
+
+        private Resource(String kind, String name, Map<String, String> labels, ModelNode json) {
+            this.kind = kind;
+            this.name = name;
+            this.labels = copy(labels);
+            this.json = json;
+        }
+
+        public String getKind() {
+            return kind;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Map<String, String> getLabels() {
+            return labels;
+        }
+
+        public ModelNode getJson() {
+            return json;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s[%s]", kind, name);
+        }
+    }
+}
@@ -0,0 +1,462 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.arquillian.ce.memory;
+
+import static org.jboss.arquillian.ce.memory.InMemoryTemplates.child;
+import static org.jboss.arquillian.ce.memory.InMemoryTemplates.toMap;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.jboss.arquillian.ce.adapter.AbstractOpenShiftAdapter;
+import org.jboss.arquillian.ce.api.ExecResult;
+import org.jboss.arquillian.ce.api.model.OpenShiftResource;
+import org.jboss.arquillian.ce.portfwd.PortForwardContext;
+import org.jboss.arquillian.ce.proxy.Proxy;
+import org.jboss.arquillian.ce.resources.OpenShiftResourceHandle;
+import org.jboss.arquillian.ce.utils.Checker;
+import org.jboss.arquillian.ce.utils.Configuration;
+import org.jboss.arquillian.ce.utils.Containers;
+import org.jboss.arquillian.ce.utils.ExecSession;
+import org.jboss.arquillian.ce.utils.Operator;
+import org.jboss.arquillian.ce.utils.ParamValue;
+import org.jboss.arquillian.ce.utils.RCContext;
+import org.jboss.arquillian.ce.utils.Strings;
+import org.jboss.dmr.ModelNode;
+
+/**
+ * OpenShift adapter backed by {@link InMemoryCluster}, no cluster or network needed.
+ */
+public class InMemoryOpenShiftAdapter extends AbstractOpenShiftAdapter {
+    private static final long CHECK_PERIOD = Long.parseLong(Strings.getSystemPropertyOrEnvVar("arquillian.memory.check.period", "10")); // ms
+
+    private static final Pattern YAML_KIND = Pattern.compile("^\\s*kind:\\s*(\\S+)", Pattern.MULTILINE);
+    private static final Pattern YAML_NAME = Pattern.compile("^\\s*name:\\s*(\\S+)", Pattern.MULTILINE);
+
+    private final InMemoryCluster cluster;
+    private final Map<String, List<ModelNode>> templates = new ConcurrentHashMap<>();
+
+    public InMemoryOpenShiftAdapter(Configuration configuration) {
+        this(configuration, InMemoryCluster.getInstance());
+    }
+
+    public InMemoryOpenShiftAdapter(Configuration configuration, InMemoryCluster cluster) {
+        super(configuration);
+        this.cluster = cluster;
+    }
+
+    public InMemoryCluster getCluster() {
+        return cluster;
+    }
+
+    protected Proxy createProxy() {
+        return new InMemoryProxy(configuration, cluster);
+    }
+
+    @Override
+    protected long getPodCheckPeriod() {
+        return CHECK_PERIOD;
+    }
+
+    // exec
+
+    public String exec(Map<String, String> labels, int waitSeconds, String... input) throws Exception {
+        List<InMemoryCluster.Pod> pods = cluster.getPods(labels);
+        if (pods.isEmpty()) {
+            throw new IllegalStateException("No such pod: " + labels);
+        }
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        exec(pods.get(0).getName(), output, System.err, waitSeconds, TimeUnit.SECONDS, input);
+        return output.toString();
+    }
+
+    @Override
+    public ExecResult exec(String podName, InputStream in, OutputStream out, OutputStream err, long timeout, TimeUnit unit, String... command) throws Exception {
+        return new ExecResult(podName, execute(podName, in, out, err, timeout, unit, command), null, null);
+    }
+
+    protected boolean doExec(String podName, InputStream in, OutputStream out, OutputStream err, long timeout, TimeUnit unit, String... command) throws Exception {
+        try {
+            execute(podName, in, out, err, timeout, unit, command);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Run the command with the cluster's exec handler, on its own thread, so the timeout is honored.
+     */
+    private int execute(final String podName, final InputStream in, final OutputStream out, final OutputStream err, long timeout, TimeUnit unit, final String... command) throws Exception {
+        cluster.getPod(podName);
+        final InMemoryCluster.ExecHandler handler = cluster.getExecHandler();
+        if (handler == null) {
+            return 0;
+        }
+        FutureTask<Integer> task = new FutureTask<>(new Callable<Integer>() {
+            public Integer call() throws Exception {
+                return handler.exec(podName, command, in, out, err);
+            }
+        });
+        Thread thread = new Thread(task, "ce-arq-memory-exec-" + podName);
+        thread.setDaemon(true);
+        thread.start();
+        try {
+            return task.get(timeout, unit);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw (cause instanceof Exception) ? (Exception) cause : e;
+        } catch (TimeoutException e) {
+            task.cancel(true);
+            throw new TimeoutException(String.format("Exec %s in pod %s didn't complete in %s %s", Arrays.toString(command), podName, timeout, unit));
+        }
+    }
+
+    /**
+     * There is no shell to keep open, each command line is run directly as "sh -c".
+     */
+    protected ExecSession createExecSession(final String podName) throws Exception {
+        cluster.getPod(podName);
+        return new ExecSession(podName) {
+            protected OutputStream getInput() {
+                return new ByteArrayOutputStream(); // unused, see execute
+            }
+
+            @Override
+            public synchronized ExecResult execute(String commandLine, long timeout, TimeUnit unit) throws Exception {
+                if (isClosed()) {
+                    throw new IllegalStateException(String.format("Exec session to pod %s is closed", podName));
+                }
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                ByteArrayOutputStream err = new ByteArrayOutputStream();
+                try {
+                    int exitCode = InMemoryOpenShiftAdapter.this.execute(podName, null, out, err, timeout, unit, "sh", "-c", commandLine);
+                    return new ExecResult(podName, exitCode, out.toString(), err.toString());
+                } catch (TimeoutException e) {
+                    close();
+                    throw e;
+                }
+            }
+
+            public void close() {
+                sessionClosed();
+            }
+        };
+    }
+
+    // projects
+
+    public boolean checkProject() {
+        return cluster.addProject(configuration.getNamespace());
+    }
+
+    public boolean deleteProject() {
+        return cluster.removeProject(configuration.getNamespace());
+    }
+
+    /**
+     * Pods have no network, so the context just points at the port on the loopback interface.
+     */
+    public PortForwardContext createPortForwardContext(Map<String, String> labels, int port) {
+        List<InMemoryCluster.Pod> pods = cluster.getPods(labels);
+        if (pods.isEmpty()) {
+            throw new IllegalStateException("No such pod: " + labels);
+        }
+        return new PortForwardContext("http://localhost", "localhost", configuration.getNamespace(), pods.get(0).getName(), port);
+    }
+
+    // pods and controllers
+
+    public String deployPod(String name, String env, RCContext context) throws Exception {
+        Map<String, String> podLabels = new HashMap<>();
+        podLabels.put("name", name + "-pod");
+        podLabels.putAll(context.getLabels());
+        return cluster.createPod(name + "-pod", podLabels).getName();
+    }
+
+    public String deployReplicationController(String name, String env, RCContext context) throws Exception {
+        Map<String, String> podLabels = new HashMap<>();
+        podLabels.put("name", name + "-pod");
+        podLabels.putAll(context.getLabels());
+
+        Map<String, String> selector = Collections.singletonMap("name", name + "-pod");
+        Map<String, String> labels = Collections.singletonMap("name", name + "Controller");
+        return cluster.createController(InMemoryCluster.REPLICATION_CONTROLLER, name + "rc", labels, selector, podLabels, context.getReplicas()).getName();
+    }
+
+    public void deletePod(String podName, long gracePeriodSeconds) throws Exception {
+        cluster.deletePod(podName);
+    }
+
+    private InMemoryCluster.Controller getDC(String prefix) throws Exception {
+        for (InMemoryCluster.Controller controller : cluster.getControllers(InMemoryCluster.DEPLOYMENT_CONFIG)) {
+            if (controller.getName().startsWith(prefix)) {
+                return controller;
+            }
+        }
+        throw new Exception("No DC found starting with " + prefix);
+    }
+
+    protected Map<String, String> getLabels(String prefix) throws Exception {
+        return getDC(prefix).getSelector();
+    }
+
+    public void scaleDeployment(String prefix, int replicas) throws Exception {
+        InMemoryCluster.Controller dc = getDC(prefix);
+        cluster.scale(dc, replicas);
+        delay(dc.getSelector(), replicas, Operator.EQUAL);
+    }
+
+    public void triggerDeploymentConfigUpdate(String prefix, boolean wait, Map<String, String> variables) throws Exception {
+        final InMemoryCluster.Controller dc = getDC(prefix);
+        cluster.rollout(dc, (variables != null && variables.isEmpty() == false) ? variables : Collections.singletonMap("_DUMMY", "_VALUE"));
+        if (wait) {
+            Containers.delay(configuration.getStartupTimeout(), CHECK_PERIOD, new Checker() {
+                public boolean check() {
+                    return getProxy().getReadyPods(dc.getSelector()).size() == dc.getReplicas();
+                }
+            });
+        }
+    }
+
+    public void triggerDeploymentConfigUpdate(String prefix, boolean wait) throws Exception {
+        triggerDeploymentConfigUpdate(prefix, wait, null);
+    }
+
+    public List<String> getPods(String prefix) throws Exception {
+        return getProxy().getPodNames(prefix == null ? null : getLabels(prefix));
+    }
+
+    // logs
+
+    public String getLog(String podName) throws Exception {
+        return cluster.getPod(podName).log.toString();
+    }
+
+    public InputStream streamLog(String podName) throws Exception {
+        return cluster.getPod(podName).log.follow();
+    }
+
+    public InputStream dumpLog(String podName) throws Exception {
+        return new ByteArrayInputStream(cluster.getPod(podName).log.toByteArray());
+    }
+
+    public String getLog(String prefix, Map<String, String> labels) throws Exception {
+        for (InMemoryCluster.Pod pod : cluster.getPods(labels)) {
+            if (prefix == null || pod.getName().startsWith(prefix)) {
+                return getLog(pod.getName());
+            }
+        }
+        throw new Exception(String.format("No pod found starting with '%s' and labels %s.", prefix, labels));
+    }
+
+    // templates and resources
+
+    public List<? extends OpenShiftResource> processTemplateAndCreateResources(String templateKey, String templateURL, List<ParamValue> values, Map<String, String> labels) throws Exception {
+        List<ModelNode> items = InMemoryTemplates.process(templateURL, values, labels);
+        templates.put(templateKey, items);
+
+        List<OpenShiftResource> retVal = new ArrayList<>();
+        for (ModelNode item : items) {
+            Object created = create(item);
+            if (created instanceof InMemoryCluster.Controller && InMemoryCluster.DEPLOYMENT_CONFIG.equals(((InMemoryCluster.Controller) created).getKind())) {
+                retVal.add(new InMemoryDeploymentConfig((InMemoryCluster.Controller) created));
+            }
+        }
+        return retVal;
+    }
+
+    public Object deleteTemplate(String templateKey) throws Exception {
+        List<ModelNode> items = templates.remove(templateKey);
+        if (items != null) {
+            delete(items);
+        }
+        return items;
+    }
+
+    protected OpenShiftResourceHandle createResourceFromStream(InputStream stream) throws IOException {
+        final List<ModelNode> items = new ArrayList<>();
+        try {
+            String content = read(stream);
+            try {
+                ModelNode json = ModelNode.fromJSONString(content);
+                if ("List".equalsIgnoreCase(json.get("kind").asString())) {
+                    items.addAll(json.get("items").asList());
+                } else {
+                    items.add(json);
+                }
+            } catch (IllegalArgumentException e) {
+                // YAML, only kind and name are understood
+                ModelNode node = new ModelNode();
+                node.get("kind").set(find(YAML_KIND, content));
+                node.get("metadata", "name").set(find(YAML_NAME, content));
+                items.add(node);
+            }
+        } finally {
+            stream.close();
+        }
+
+        for (ModelNode item : items) {
+            create(item);
+        }
+        return new OpenShiftResourceHandle() {
+            public void delete() {
+                InMemoryOpenShiftAdapter.this.delete(items);
+            }
+
+            public String toString() {
+                List<String> names = new ArrayList<>();
+                for (ModelNode item : items) {
+                    names.add(item.get("kind").asString() + "/" + item.get("metadata", "name").asString());
+                }
+                return names.toString();
+            }
+        };
+    }
+
+    protected OpenShiftResourceHandle createRoleBinding(String roleRefName, String userName) {
+        final String name = roleRefName + "-" + userName.substring(userName.lastIndexOf(":") + 1);
+        ModelNode json = new ModelNode();
+        json.get("kind").set("RoleBinding");
+        json.get("metadata", "name").set(name);
+        json.get("roleRef", "name").set(roleRefName);
+        json.get("userNames").add(userName);
+        cluster.addResource("RoleBinding", name, null, json);
+        return new OpenShiftResourceHandle() {
+            public void delete() {
+                cluster.removeResource("RoleBinding", name);
+            }
+
+            public String toString() {
+                return "RoleBinding/" + name;
+            }
+        };
+    }
+
+    public Object getService(String namespace, String serviceName) {
+        return cluster.getResource("Service", serviceName);
+    }
+
+    private Object create(ModelNode item) {
+        String kind = item.get("kind").asString();
+        String name = item.get("metadata", "name").asString();
+        Map<String, String> labels = toMap(child(item, "metadata", "labels"));
+
+        if (InMemoryCluster.DEPLOYMENT_CONFIG.equals(kind) || InMemoryCluster.REPLICATION_CONTROLLER.equals(kind)) {
+            ModelNode replicas = child(item, "spec", "replicas");
+            Map<String, String> selector = toMap(child(item, "spec", "selector"));
+            Map<String, String> podLabels = toMap(child(item, "spec", "template", "metadata", "labels"));
+            if (podLabels.isEmpty()) {
+                podLabels = selector;
+            }
+            return cluster.createController(kind, name, labels, selector, podLabels, replicas.isDefined() ? replicas.asInt() : 1);
+        } else if ("BuildConfig".equals(kind)) {
+            cluster.addResource(kind, name, labels, item);
+            ModelNode build = new ModelNode();
+            build.get("kind").set("Build");
+            build.get("metadata", "name").set(name + "-1");
+            build.get("status", "phase").set("Complete");
+            Map<String, String> buildLabels = new HashMap<>(labels);
+            buildLabels.put("buildconfig", name);
+            return cluster.addResource("Build", name + "-1", buildLabels, build);
+        } else {
+            if ("Route".equals(kind) && child(item, "spec", "host").isDefined() == false) {
+                item.get("spec", "host").set(String.format("%s-%s.%s", name, configuration.getNamespace(), "router.default.svc.cluster.local"));
+            }
+            return cluster.addResource(kind, name, labels, item);
+        }
+    }
+
+    private void delete(List<ModelNode> items) {
+        for (ModelNode item : items) {
+            String kind = item.get("kind").asString();
+            String name = item.get("metadata", "name").asString();
+            cluster.delete(kind, name);
+            if ("BuildConfig".equals(kind)) {
+                cluster.delete("Build", name + "-1");
+            }
+        }
+    }
+
+    private static String read(InputStream stream) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = stream.read(buffer)) != -1) {
+            baos.write(buffer, 0, n);
+        }
+        return new String(baos.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static String find(Pattern pattern, String content) {
+        Matcher matcher = pattern.matcher(content);
+        if (matcher.find() == false) {
+            throw new IllegalArgumentException("Cannot parse resource: " + pattern);
+        }
+        return matcher.group(1);
+    }
+
+    // cleanup
+
+    public void cleanReplicationControllers(String... ids) throws Exception {
+        for (String id : ids) {
+            cluster.deleteController(InMemoryCluster.REPLICATION_CONTROLLER, id);
+        }
+    }
+
+    public void cleanPods(Map<String, String> labels) throws Exception {
+        for (InMemoryCluster.Pod pod : cluster.getPods(labels)) {
+            cluster.deletePod(pod.getName());
+        }
+    }
+
+    public void cleanRemnants(Map<String, String> labels) throws Exception {
+        cluster.deleteAll(labels);
+    }
+
+    public void close() throws IOException {
+        reportOrphanResources();
+        templates.clear();
+        closeExecSessions();
+        closeProxy();
+    }
+}
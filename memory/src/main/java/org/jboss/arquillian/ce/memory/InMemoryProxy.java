@@ -0,0 +1,140 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.arquillian.ce.memory;
+
+import java.io.IOException;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Map;
+
+import javax.net.ssl.SSLContext;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import org.jboss.arquillian.ce.proxy.AbstractProxy;
+import org.jboss.arquillian.ce.utils.Configuration;
+
+/**
+ * Pod proxy answering from the cluster's {@link InMemoryCluster.HttpHandler}, without any network.
+ */
+public class InMemoryProxy extends AbstractProxy<InMemoryCluster.Pod> {
+    private static final MediaType OCTET_STREAM = MediaType.parse("application/octet-stream");
+
+    private final InMemoryCluster cluster;
+    private OkHttpClient httpClient;
+
+    public InMemoryProxy(Configuration configuration, InMemoryCluster cluster) {
+        super(configuration);
+        this.cluster = cluster;
+    }
+
+    public SSLContext getSSLContext() {
+        try {
+            return SSLContext.getDefault();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    protected List<InMemoryCluster.Pod> getPods(Map<String, String> labels) {
+        return cluster.getPods(labels);
+    }
+
+    protected String getName(InMemoryCluster.Pod pod) {
+        return pod.getName();
+    }
+
+    protected boolean isReady(InMemoryCluster.Pod pod) {
+        return pod.isReady();
+    }
+
+    protected synchronized OkHttpClient getHttpClient() {
+        if (httpClient == null) {
+            httpClient = new OkHttpClient.Builder().addInterceptor(new Interceptor() {
+                public Response intercept(Chain chain) throws IOException {
+                    return handle(chain.request());
+                }
+            }).build();
+        }
+        return httpClient;
+    }
+
+    /**
+     * Parses .../pods/[protocol:]pod:port/proxy/path urls.
+     */
+    private Response handle(Request request) throws IOException {
+        String url = request.url().encodedPath();
+        int podsIndex = url.indexOf("/pods/");
+        int proxyIndex = url.indexOf("/proxy", podsIndex);
+        if (podsIndex < 0 || proxyIndex < 0) {
+            return response(request, 404, null);
+        }
+        String[] target = url.substring(podsIndex + "/pods/".length(), proxyIndex).split(":");
+        String podName = target.length > 2 ? target[1] : target[0];
+        int port = Integer.parseInt(target[target.length - 1]);
+        String path = url.substring(proxyIndex + "/proxy".length());
+        if (request.url().encodedQuery() != null) {
+            path += "?" + request.url().encodedQuery();
+        }
+
+        byte[] body = null;
+        if (request.body() != null) {
+            Buffer buffer = new Buffer();
+            request.body().writeTo(buffer);
+            body = buffer.readByteArray();
+        }
+
+        InMemoryCluster.HttpHandler handler = cluster.getHttpHandler();
+        try {
+            cluster.getPod(podName);
+            if (handler == null) {
+                return response(request, 404, null);
+            }
+            byte[] result = handler.handle(podName, port, path, body);
+            return response(request, result != null ? 200 : 404, result);
+        } catch (IllegalArgumentException e) {
+            return response(request, 404, null); // no such pod
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            return response(request, 500, String.valueOf(e).getBytes());
+        }
+    }
+
+    private static Response response(Request request, int code, byte[] body) {
+        return new Response.Builder()
+            .request(request)
+            .protocol(Protocol.HTTP_1_1)
+            .code(code)
+            .message(code == 200 ? "OK" : "Status " + code)
+            .body(ResponseBody.create(OCTET_STREAM, body != null ? body : new byte[0]))
+            .build();
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.arquillian.ce.memory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.jboss.arquillian.ce.utils.ParamValue;
+import org.jboss.dmr.ModelNode;
+
+/**
+ * Processes JSON templates the way OpenShift does: parameter substitution and template labels.
+ */
+class InMemoryTemplates {
+
+    static List<ModelNode> process(String templateURL, List<ParamValue> values, Map<String, String> labels) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (InputStream stream = new URL(templateURL).openStream()) {
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = stream.read(buffer)) != -1) {
+                baos.write(buffer, 0, n);
+            }
+        }
+        String content = new String(baos.toByteArray(), StandardCharsets.UTF_8);
+
+        ModelNode template;
+        try {
+            template = ModelNode.fromJSONString(content);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(String.format("Only JSON templates are supported in memory: %s", templateURL), e);
+        }
+
+        Map<String, String> parameters = new LinkedHashMap<>();
+        for (ModelNode parameter : child(template, "parameters").isDefined() ? template.get("parameters").asList() : Collections.<ModelNode>emptyList()) {
+            String value = null;
+            if (parameter.has("value")) {
+                value = parameter.get("value").asString();
+            } else if (parameter.has("generate")) {
+                value = UUID.randomUUID().toString().replace("-", "").substring(0, 8);
+            }
+            parameters.put(parameter.get("name").asString(), value);
+        }
+        // only declared parameters are substituted
+        for (ParamValue value : values) {
+            if (parameters.containsKey(value.getName())) {
+                parameters.put(value.getName(), value.getValue());
+            }
+        }
+
+        String objects = child(template, "objects").isDefined() ? template.get("objects").toJSONString(true) : "[]";
+        for (Map.Entry<String, String> parameter : parameters.entrySet()) {
+            String value = parameter.getValue() != null ? parameter.getValue() : "";
+            objects = objects.replace("\"${{" + parameter.getKey() + "}}\"", value);
+            objects = objects.replace("${" + parameter.getKey() + "}", escape(value));
+        }
+
+        Map<String, String> allLabels = new HashMap<>(toMap(child(template, "labels")));
+        if (labels != null) {
+            allLabels.putAll(labels);
+        }
+
+        List<ModelNode> items = ModelNode.fromJSONString(objects).asList();
+        for (ModelNode item : items) {
+            addLabels(item.get("metadata", "labels"), allLabels);
+            String kind = item.get("kind").asString();
+            if (InMemoryCluster.DEPLOYMENT_CONFIG.equals(kind) || InMemoryCluster.REPLICATION_CONTROLLER.equals(kind)) {
+                addLabels(item.get("spec", "template", "metadata", "labels"), allLabels);
+            }
+        }
+        return items;
+    }
+
+    private static void addLabels(ModelNode node, Map<String, String> labels) {
+        for (Map.Entry<String, String> label : labels.entrySet()) {
+            node.get(label.getKey()).set(label.getValue());
+        }
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    /**
+     * Read-only navigation, unlike ModelNode::get it doesn't create missing nodes.
+     */
+    static ModelNode child(ModelNode node, String... names) {
+        ModelNode current = node;
+        for (String name : names) {
+            if (current.isDefined() == false || current.has(name) == false) {
+                return new ModelNode();
+            }
+            current = current.get(name);
+        }
+        return current;
+    }
+
+    static Map<String, String> toMap(ModelNode node) {
+        Map<String, String> map = new HashMap<>();
+        if (node.isDefined()) {
+            for (String key : node.keys()) {
+                map.put(key, node.get(key).asString());
+            }
+        }
+        return map;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.arquillian.ce.memory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Pod log, which can be read as a whole or followed until the pod is gone.
+ */
+class PodLog {
+    private byte[] buffer = new byte[1024];
+    private int count;
+    private boolean ended;
+
+    synchronized void append(String line) {
+        byte[] b = (line + "\n").getBytes(StandardCharsets.UTF_8);
+        if (count + b.length > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, count + b.length));
+        }
+        System.arraycopy(b, 0, buffer, count, b.length);
+        count += b.length;
+        notifyAll();
+    }
+
+    synchronized void end() {
+        ended = true;
+        notifyAll();
+    }
+
+    synchronized byte[] toByteArray() {
+        return Arrays.copyOf(buffer, count);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return new String(buffer, 0, count, StandardCharsets.UTF_8);
+    }
+
+    InputStream follow() {
+        return new InputStream() {
+            private int position;
+            private boolean closed;
+
+            @Override
+            public int read() throws IOException {
+                byte[] b = new byte[1];
+                return read(b, 0, 1) == -1 ? -1 : (b[0] & 0xff);
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                synchronized (PodLog.this) {
+                    while (closed == false && position == count && ended == false) {
+                        try {
+                            PodLog.this.wait();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new InterruptedIOException();
+                        }
+                    }
+                    if (closed || position == count) {
+                        return -1;
+                    }
+                    int n = Math.min(len, count - position);
+                    System.arraycopy(buffer, position, b, off, n);
+                    position += n;
+                    return n;
+                }
+            }
+
+            @Override
+            public void close() {
+                synchronized (PodLog.this) {
+                    closed = true;
+                    PodLog.this.notifyAll();
+                }
+            }
+        };
+    }
+}
@@ -24,10 +24,11 @@
 package org.jboss.arquillian.ce.shrinkwrap;
 
 import java.io.File;
-
-import org.jboss.shrinkwrap.resolver.api.maven.Maven;
+import java.util.Collection;
 
 /**
+ * Resolved files are cached, see cearq.maven.cache and cearq.maven.cache.file system properties.
+ *
  * @author <a href="mailto:ales.justin@jboss.org">Ales Justin</a>
  */
 public class Libraries {
@@ -52,7 +53,7 @@ public class Libraries {
     }
 
     public static File[] single(PomStrategy pomStrategy, String groupId, String artifactId) {
-        return Maven.resolver().loadPomFromFile(pomStrategy.toPom(), pomStrategy.profiles()).resolve(groupId + ":" + artifactId).withoutTransitivity().asFile();
+        return ResolutionCache.getInstance().resolve(pomStrategy, groupId + ":" + artifactId, false);
     }
 
     public static File[] transitive(String groupId, String artifactId) {
@@ -60,6 +61,23 @@ public class Libraries {
     }
 
     public static File[] transitive(PomStrategy pomStrategy, String groupId, String artifactId) {
-        return Maven.resolver().loadPomFromFile(pomStrategy.toPom(), pomStrategy.profiles()).resolve(groupId + ":" + artifactId).withTransitivity().asFile();
+        return ResolutionCache.getInstance().resolve(pomStrategy, groupId + ":" + artifactId, true);
+    }
+
+    public static File[] resolveAll(Collection<String> coordinates, boolean transitive) {
+        return resolveAll(MAVEN, coordinates, transitive);
+    }
+
+    /**
+     * Resolve many coordinates at once, in a single resolution request.
+     * The files are merged and de-duplicated, not split per coordinate.
+     *
+     * @param pomStrategy the pom strategy
+     * @param coordinates coordinates, e.g. groupId:artifactId
+     * @param transitive  whether to include transitive dependencies
+     * @return files of all coordinates
+     */
+    public static File[] resolveAll(PomStrategy pomStrategy, Collection<String> coordinates, boolean transitive) {
+        return ResolutionCache.getInstance().resolveAll(pomStrategy, coordinates, transitive);
     }
 }
@@ -0,0 +1,330 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.arquillian.ce.shrinkwrap;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Logger;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.jboss.shrinkwrap.resolver.api.maven.Maven;
+import org.jboss.shrinkwrap.resolver.api.maven.MavenFormatStage;
+import org.jboss.shrinkwrap.resolver.api.maven.MavenStrategyStage;
+import org.jboss.shrinkwrap.resolver.api.maven.PomEquippedResolveStage;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * Caches resolved files per (pom + its and its parents' last modifications, profiles, coordinate, transitivity),
+ * in memory and in a small on-disk index, so the next run doesn't resolve again either.
+ * A pom is loaded only once, its resolver is then reused.
+ * <p/>
+ * Entries whose files are gone, e.g. after cleaning the local repository, are resolved again.
+ */
+class ResolutionCache {
+    private static final Logger log = Logger.getLogger(ResolutionCache.class.getName());
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("cearq.maven.cache", "true"));
+    private static final String INDEX_FILE = System.getProperty("cearq.maven.cache.file", "target/ce-arq-maven-cache.properties");
+
+    private static final String SEPARATOR = "|";
+
+    // bumped when the entries of older indexes can't be trusted, e.g. after resolveAll stored per coordinate entries
+    private static final String VERSION_KEY = "version";
+    private static final String VERSION = "2";
+
+    // pom (+ its last modification) -> its parent poms on disk, found via <relativePath>
+    private static final ConcurrentMap<String, List<File>> PARENTS = new ConcurrentHashMap<>();
+
+    private static final ResolutionCache INSTANCE = new ResolutionCache(ENABLED ? new File(INDEX_FILE) : null);
+
+    private final File index;
+    private final ConcurrentMap<String, File[]> resolved = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, PomEquippedResolveStage> resolvers = new ConcurrentHashMap<>();
+
+    private ResolutionCache(File index) {
+        this.index = index;
+        if (index != null && index.exists()) {
+            load();
+        }
+    }
+
+    static ResolutionCache getInstance() {
+        return INSTANCE;
+    }
+
+    File[] resolve(PomStrategy pomStrategy, String coordinate, boolean transitive) {
+        String pomKey = pomKey(pomStrategy);
+        String key = key(pomKey, coordinate, transitive);
+
+        File[] files = lookup(key);
+        if (files == null) {
+            PomEquippedResolveStage resolver = getResolver(pomKey, pomStrategy);
+            synchronized (resolver) {
+                if (transitive) {
+                    files = resolver.resolve(coordinate).withTransitivity().asFile();
+                } else {
+                    files = resolver.resolve(coordinate).withoutTransitivity().asFile();
+                }
+            }
+            store(key, files);
+        }
+        return files.clone();
+    }
+
+    /**
+     * Resolve the coordinates in a single request, so the combined graph is walked once,
+     * with versions mediated across all coordinates.
+     * The graph keeps a shared dependency under one coordinate only, so we don't split the files
+     * per coordinate; the merged set is cached under its own key, never under a single coordinate's.
+     */
+    File[] resolveAll(PomStrategy pomStrategy, Collection<String> coordinates, boolean transitive) {
+        String pomKey = pomKey(pomStrategy);
+        String key = batchKey(pomKey, coordinates, transitive);
+
+        File[] files = lookup(key);
+        if (files == null) {
+            PomEquippedResolveStage resolver = getResolver(pomKey, pomStrategy);
+            synchronized (resolver) {
+                MavenStrategyStage stage = resolver.resolve(coordinates);
+                MavenFormatStage format = transitive ? stage.withTransitivity() : stage.withoutTransitivity();
+                files = format.asFile();
+            }
+            Set<File> unique = new LinkedHashSet<>(Arrays.asList(files));
+            files = unique.toArray(new File[unique.size()]);
+            store(key, files);
+        }
+        return files.clone();
+    }
+
+    private File[] lookup(String key) {
+        File[] files = resolved.get(key);
+        if (files != null && exist(files) == false) {
+            resolved.remove(key, files);
+            return null;
+        }
+        return files;
+    }
+
+    private void store(String key, File[] files) {
+        if (index == null) {
+            return; // caching disabled
+        }
+        resolved.put(key, files.clone());
+        try {
+            write();
+        } catch (IOException e) {
+            log.warning(String.format("Cannot write Maven resolution cache %s: %s", index, e));
+        }
+    }
+
+    PomEquippedResolveStage getResolver(String pomKey, PomStrategy pomStrategy) {
+        PomEquippedResolveStage resolver = resolvers.get(pomKey);
+        if (resolver == null) {
+            resolver = Maven.resolver().loadPomFromFile(pomStrategy.toPom(), pomStrategy.profiles());
+            PomEquippedResolveStage previous = resolvers.putIfAbsent(pomKey, resolver);
+            if (previous != null) {
+                resolver = previous;
+            }
+        }
+        return resolver;
+    }
+
+    /**
+     * @return pom path, its and its parents' last modifications and the profiles
+     */
+    static String pomKey(PomStrategy pomStrategy) {
+        File pom = new File(pomStrategy.toPom()).getAbsoluteFile();
+        String[] profiles = pomStrategy.profiles();
+        return pom.getPath() + SEPARATOR + modifications(pom) + SEPARATOR + (profiles != null ? Arrays.toString(profiles) : "");
+    }
+
+    /**
+     * Versions managed in a parent pom change the resolution as well, hence the parents' modifications.
+     * Parents are followed via their relativePath; BOM imports and parents resolved from a repository are not.
+     */
+    private static String modifications(File pom) {
+        StringBuilder builder = new StringBuilder().append(pom.lastModified());
+        for (File parent : parents(pom)) {
+            builder.append(",").append(parent.lastModified());
+        }
+        return builder.toString();
+    }
+
+    private static List<File> parents(File pom) {
+        String key = pom.getPath() + SEPARATOR + pom.lastModified();
+        List<File> parents = PARENTS.get(key);
+        if (parents == null) {
+            parents = new ArrayList<>();
+            Set<File> seen = new HashSet<>();
+            seen.add(pom);
+            File parent = parent(pom);
+            while (parent != null && seen.add(parent)) {
+                parents.add(parent);
+                parent = parent(parent);
+            }
+            PARENTS.putIfAbsent(key, parents);
+        }
+        return parents;
+    }
+
+    /**
+     * @return the parent pom on disk, or null if there is none
+     */
+    private static File parent(File pom) {
+        try {
+            Element project = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(pom).getDocumentElement();
+            Element parent = child(project, "parent");
+            if (parent == null) {
+                return null;
+            }
+            Element relativePath = child(parent, "relativePath");
+            String path = (relativePath != null) ? relativePath.getTextContent().trim() : "../pom.xml";
+            if (path.isEmpty()) {
+                return null; // resolved from a repository
+            }
+            File file = new File(pom.getParentFile(), path);
+            if (file.isDirectory()) {
+                file = new File(file, "pom.xml");
+            }
+            return file.isFile() ? file.getCanonicalFile() : null;
+        } catch (Exception e) {
+            log.fine(String.format("Cannot read parent of pom %s: %s", pom, e));
+            return null;
+        }
+    }
+
+    private static Element child(Element element, String name) {
+        for (Node node = element.getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (node instanceof Element && name.equals(node.getLocalName() != null ? node.getLocalName() : node.getNodeName())) {
+                return (Element) node;
+            }
+        }
+        return null;
+    }
+
+    static String key(String pomKey, String coordinate, boolean transitive) {
+        return pomKey + SEPARATOR + coordinate + SEPARATOR + (transitive ? "transitive" : "single");
+    }
+
+    static String batchKey(String pomKey, Collection<String> coordinates, boolean transitive) {
+        Set<String> sorted = new TreeSet<>(coordinates);
+        return pomKey + SEPARATOR + "batch" + sorted + SEPARATOR + (transitive ? "transitive" : "single");
+    }
+
+    private static boolean exist(File[] files) {
+        for (File file : files) {
+            if (file.exists() == false) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void load() {
+        Properties properties = new Properties();
+        try (InputStream stream = new FileInputStream(index)) {
+            properties.load(stream);
+        } catch (IOException e) {
+            log.warning(String.format("Cannot read Maven resolution cache %s: %s", index, e));
+            return;
+        }
+        if (VERSION.equals(properties.getProperty(VERSION_KEY)) == false) {
+            log.info(String.format("Ignoring Maven resolution cache %s of an older version", index));
+            return;
+        }
+        for (String key : properties.stringPropertyNames()) {
+            // drop entries of modified poms, incl. modified parents
+            String[] parts = key.split("\\" + SEPARATOR);
+            if (parts.length > 1 && modifications(new File(parts[0])).equals(parts[1])) {
+                resolved.put(key, toFiles(properties.getProperty(key)));
+            }
+        }
+        log.info(String.format("Loaded %s cached Maven resolution(s) from %s", resolved.size(), index));
+    }
+
+    private synchronized void write() throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty(VERSION_KEY, VERSION);
+        for (Map.Entry<String, File[]> entry : resolved.entrySet()) {
+            properties.setProperty(entry.getKey(), toString(entry.getValue()));
+        }
+        File dir = index.getAbsoluteFile().getParentFile();
+        if (dir.exists() == false && dir.mkdirs() == false && dir.exists() == false) {
+            throw new IOException(String.format("Cannot create cache dir: %s", dir));
+        }
+        // written aside and moved, so other JVMs (forked tests, parallel builds) never load a partial index
+        File tmp = File.createTempFile(index.getName(), ".tmp", dir);
+        try {
+            try (OutputStream stream = new FileOutputStream(tmp)) {
+                properties.store(stream, "CE-Arquillian Maven resolution cache");
+            }
+            Files.move(tmp.toPath(), index.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp.toPath());
+        }
+    }
+
+    private static File[] toFiles(String value) {
+        if (value.isEmpty()) {
+            return new File[0];
+        }
+        String[] paths = value.split(File.pathSeparator);
+        File[] files = new File[paths.length];
+        for (int i = 0; i < paths.length; i++) {
+            files[i] = new File(paths[i]);
+        }
+        return files;
+    }
+
+    private static String toString(File[] files) {
+        StringBuilder builder = new StringBuilder();
+        for (File file : files) {
+            if (builder.length() > 0) {
+                builder.append(File.pathSeparator);
+            }
+            builder.append(file.getAbsolutePath());
+        }
+        return builder.toString();
+    }
+}
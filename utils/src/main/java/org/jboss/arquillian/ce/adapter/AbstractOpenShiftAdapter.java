@@ -24,27 +24,50 @@
 package org.jboss.arquillian.ce.adapter;
 
 import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.logging.Logger;
 
+import org.jboss.arquillian.ce.api.ExecResult;
+import org.jboss.arquillian.ce.api.LogTail;
+import org.jboss.arquillian.ce.instrumentation.Instrumentations;
+import org.jboss.arquillian.ce.instrumentation.Instrumented;
+import org.jboss.arquillian.ce.instrumentation.Operation;
+import org.jboss.arquillian.ce.instrumentation.OperationType;
+import org.jboss.arquillian.ce.metrics.ApiMetrics;
 import org.jboss.arquillian.ce.proxy.Proxy;
 import org.jboss.arquillian.ce.resources.OpenShiftResourceHandle;
 import org.jboss.arquillian.ce.utils.Checker;
 import org.jboss.arquillian.ce.utils.Configuration;
 import org.jboss.arquillian.ce.utils.Containers;
+import org.jboss.arquillian.ce.utils.DeltaDeployer;
 import org.jboss.arquillian.ce.utils.DeploymentContext;
+import org.jboss.arquillian.ce.utils.ExecSession;
+import org.jboss.arquillian.ce.utils.ExecSessionPool;
+import org.jboss.arquillian.ce.utils.ExitCodeOutputStream;
 import org.jboss.arquillian.ce.utils.Operator;
+import org.jboss.arquillian.ce.utils.ParallelTasks;
+import org.jboss.arquillian.ce.utils.PodLogTail;
 import org.jboss.arquillian.ce.utils.ReflectionUtils;
+import org.jboss.arquillian.ce.utils.Strings;
 import org.jboss.arquillian.container.spi.client.protocol.metadata.ProtocolMetaData;
 import org.jboss.arquillian.core.api.Instance;
+import org.jboss.shrinkwrap.api.Archive;
 import org.jolokia.client.request.J4pRequest;
 import org.jolokia.client.request.J4pResponse;
 import org.json.simple.JSONAware;
@@ -56,12 +79,18 @@ import org.json.simple.parser.ParseException;
  * @author <a href="mailto:ales.justin@jboss.org">Ales Justin</a>
  */
 public abstract class AbstractOpenShiftAdapter implements OpenShiftAdapter {
+    private static final int EXEC_THREADS = Integer.parseInt(Strings.getSystemPropertyOrEnvVar("arquillian.exec.threads", "8"));
+    private static final int DELETE_THREADS = Integer.parseInt(Strings.getSystemPropertyOrEnvVar("arquillian.resources.delete.threads", "4"));
+
     protected final Logger log = Logger.getLogger(getClass().getName());
 
     protected final Configuration configuration;
-    private Map<String, List<OpenShiftResourceHandle>> resourcesMap = new ConcurrentHashMap<>();
+    protected final ApiMetrics apiMetrics = new ApiMetrics();
+    private final ConcurrentMap<String, ResourceHandles> resourcesMap = new ConcurrentHashMap<>();
     private Proxy proxy;
+    private ExecSessionPool execSessionPool;
     private Instance<ProtocolMetaData> pmdInstance;
+    private DeltaDeployer deltaDeployer;
 
     protected AbstractOpenShiftAdapter(Configuration configuration) {
         this.configuration = configuration;
@@ -73,6 +102,10 @@ public abstract class AbstractOpenShiftAdapter implements OpenShiftAdapter {
 
     protected abstract Proxy createProxy();
 
+    public ApiMetrics getApiMetrics() {
+        return apiMetrics;
+    }
+
     public String url(String podName, int port, String path, String parameters) {
         return getProxy().url(podName, port, path, parameters);
     }
@@ -95,6 +128,99 @@ public abstract class AbstractOpenShiftAdapter implements OpenShiftAdapter {
         return getProxy().post(labels, pod, port, path);
     }
 
+    public boolean deployDelta(Archive<?> archive) throws Exception {
+        if (DeltaDeployer.isEnabled() == false || pmdInstance == null || pmdInstance.get() == null) {
+            return false;
+        }
+        DeploymentContext current = DeploymentContext.getDeploymentContext(pmdInstance.get());
+        getDeltaDeployer().deploy(new DeploymentContext(archive, current.getLabels(), current.getProxy()));
+        return true;
+    }
+
+    private synchronized DeltaDeployer getDeltaDeployer() {
+        if (deltaDeployer == null) {
+            deltaDeployer = new DeltaDeployer(this);
+        }
+        return deltaDeployer;
+    }
+
+    public ExecResult exec(String podName, OutputStream out, OutputStream err, long timeout, TimeUnit unit, String... command) throws Exception {
+        return exec(podName, null, out, err, timeout, unit, command);
+    }
+
+    public ExecResult exec(String podName, InputStream in, OutputStream out, OutputStream err, long timeout, TimeUnit unit, String... command) throws Exception {
+        try (ExitCodeOutputStream stderr = new ExitCodeOutputStream(err)) {
+            if (doExec(podName, in, out, stderr, timeout, unit, ExitCodeOutputStream.wrap(command)) == false) {
+                throw new TimeoutException(String.format("Exec %s in pod %s didn't complete in %s %s", Arrays.toString(command), podName, timeout, unit));
+            }
+            return new ExecResult(podName, stderr.getExitCode(), null, null);
+        }
+    }
+
+    public Map<String, ExecResult> execInAll(Map<String, String> labels, final long timeout, final TimeUnit unit, final String... command) throws Exception {
+        List<String> pods = getProxy().getPodNames(labels);
+        if (pods.isEmpty()) {
+            throw new IllegalStateException("No such pods: " + labels);
+        }
+
+        List<Callable<ExecResult>> tasks = new ArrayList<>();
+        for (final String pod : pods) {
+            tasks.add(new Callable<ExecResult>() {
+                public ExecResult call() throws Exception {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    ByteArrayOutputStream err = new ByteArrayOutputStream();
+                    try {
+                        ExecResult result = exec(pod, out, err, timeout, unit, command);
+                        return new ExecResult(pod, result.getExitCode(), out.toString(), err.toString());
+                    } catch (Exception e) {
+                        throw new IllegalStateException(String.format("Exec %s failed in pod %s", Arrays.toString(command), pod), e);
+                    }
+                }
+            });
+        }
+
+        List<ExecResult> list = ParallelTasks.run("exec", EXEC_THREADS, tasks);
+        Map<String, ExecResult> results = new TreeMap<>();
+        for (ExecResult result : list) {
+            results.put(result.getPodName(), result);
+        }
+        return results;
+    }
+
+    /**
+     * Execute command, waiting for the remote process to complete.
+     *
+     * @return true if the command completed, false on timeout
+     */
+    protected abstract boolean doExec(String podName, InputStream in, OutputStream out, OutputStream err, long timeout, TimeUnit unit, String... command) throws Exception;
+
+    public ExecResult shell(String podName, String commandLine, long timeout, TimeUnit unit) throws Exception {
+        return getExecSessionPool().execute(podName, commandLine, timeout, unit);
+    }
+
+    private synchronized ExecSessionPool getExecSessionPool() {
+        if (execSessionPool == null) {
+            execSessionPool = new ExecSessionPool(new ExecSessionPool.Factory() {
+                public ExecSession create(String podName) throws Exception {
+                    return createExecSession(podName);
+                }
+            });
+        }
+        return execSessionPool;
+    }
+
+    protected synchronized void closeExecSessions() throws IOException {
+        if (execSessionPool != null) {
+            execSessionPool.close();
+            execSessionPool = null;
+        }
+    }
+
+    /**
+     * Open a long-lived shell in the pod.
+     */
+    protected abstract ExecSession createExecSession(String podName) throws Exception;
+
     public synchronized Proxy getProxy() {
         if (proxy == null) {
             proxy = createProxy();
@@ -102,31 +228,91 @@ public abstract class AbstractOpenShiftAdapter implements OpenShiftAdapter {
         return proxy;
     }
 
+    protected synchronized void closeProxy() throws IOException {
+        if (proxy instanceof Closeable) {
+            Closeable.class.cast(proxy).close();
+        }
+        proxy = null;
+    }
+
+    // resources may be created in parallel, see OpenShiftResourceFactory
     private void addResourceHandle(String resourcesKey, OpenShiftResourceHandle handle) {
-        List<OpenShiftResourceHandle> list = resourcesMap.get(resourcesKey);
-        if (list == null) {
-            list = new ArrayList<>();
-            resourcesMap.put(resourcesKey, list);
+        while (true) {
+            ResourceHandles handles = resourcesMap.get(resourcesKey);
+            if (handles == null) {
+                ResourceHandles newHandles = new ResourceHandles();
+                handles = resourcesMap.putIfAbsent(resourcesKey, newHandles);
+                if (handles == null) {
+                    handles = newHandles;
+                }
+            }
+            if (handles.add(handle)) {
+                return;
+            }
+            // deleted meanwhile, record the handle for the next delete (or orphan report)
+            resourcesMap.remove(resourcesKey, handles);
         }
-        list.add(handle);
     }
 
     protected abstract OpenShiftResourceHandle createResourceFromStream(InputStream stream) throws IOException;
 
-    public Object createResource(String resourcesKey, InputStream stream) throws IOException {
-        OpenShiftResourceHandle resourceHandle = createResourceFromStream(stream);
-        addResourceHandle(resourcesKey, resourceHandle);
-        return resourceHandle;
+    public Object createResource(final String resourcesKey, final InputStream stream) throws IOException {
+        return Instrumentations.call(OperationType.RESOURCE_CREATION, resourcesKey, new Instrumented<Object, IOException>() {
+            public Object call(Operation operation) throws IOException {
+                OpenShiftResourceHandle resourceHandle = createResourceFromStream(stream);
+                addResourceHandle(resourcesKey, resourceHandle);
+                return resourceHandle;
+            }
+        });
     }
 
     public Object deleteResources(String resourcesKey) {
-        List<OpenShiftResourceHandle> list = resourcesMap.remove(resourcesKey);
-        if (list != null) {
-            for (OpenShiftResourceHandle resource : list) {
-                resource.delete();
+        ResourceHandles handles = resourcesMap.remove(resourcesKey);
+        if (handles == null) {
+            return null;
+        }
+        final List<OpenShiftResourceHandle> list = handles.close();
+        return Instrumentations.call(OperationType.RESOURCE_DELETION, resourcesKey, new Instrumented<Object, RuntimeException>() {
+            public Object call(Operation operation) {
+                operation.attribute(Operation.COUNT, list.size());
+                deleteAll(list);
+                return list;
+            }
+        });
+    }
+
+    /**
+     * Delete the resources in parallel; all deletes are attempted before the first failure is rethrown.
+     */
+    private void deleteAll(List<OpenShiftResourceHandle> handles) {
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (final OpenShiftResourceHandle handle : handles) {
+            tasks.add(new Callable<Void>() {
+                public Void call() {
+                    handle.delete();
+                    return null;
+                }
+            });
+        }
+        try {
+            ParallelTasks.run("delete", DELETE_THREADS, tasks);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Log resources which were created, but never deleted.
+     */
+    protected void reportOrphanResources() {
+        for (Map.Entry<String, ResourceHandles> entry : resourcesMap.entrySet()) {
+            List<OpenShiftResourceHandle> handles = entry.getValue().snapshot();
+            if (handles.isEmpty() == false) {
+                log.warning(String.format("Orphan resources [%s]: %s", entry.getKey(), handles));
             }
         }
-        return list;
     }
 
     protected abstract OpenShiftResourceHandle createRoleBinding(String roleRefName, String userName);
@@ -139,9 +325,16 @@ public abstract class AbstractOpenShiftAdapter implements OpenShiftAdapter {
 
     protected abstract Map<String, String> getLabels(String prefix) throws Exception;
 
+    /**
+     * @return period in ms between pod count checks
+     */
+    protected long getPodCheckPeriod() {
+        return 4000L;
+    }
+
     public void waitForReadyPods(String prefix, int replicas) throws Exception {
         final Map<String, String> labels = getLabels(prefix);
-        Containers.delay(configuration.getStartupTimeout(), 4000L, new PodCountChecker(labels, Operator.EQUAL, replicas));
+        awaitPods(new PodCountChecker(labels, Operator.EQUAL, replicas));
     }
 
     public void replacePods(String prefix, int size, final int replicas) throws Exception {
@@ -157,7 +350,7 @@ public abstract class AbstractOpenShiftAdapter implements OpenShiftAdapter {
             size--;
         }
 
-        Containers.delay(configuration.getStartupTimeout(), 4000L, new PodCountChecker(labels, Operator.EQUAL, replicas) {
+        awaitPods(new PodCountChecker(labels, Operator.EQUAL, replicas) {
             @Override
             protected Set<String> getReadyPods() {
                 Set<String> pods = super.getReadyPods();
@@ -175,22 +368,48 @@ public abstract class AbstractOpenShiftAdapter implements OpenShiftAdapter {
         return getPods(null);
     }
 
+    public LogTail tailLog(Map<String, String> labels, int maxLines) throws Exception {
+        return new PodLogTail(this, labels, maxLines);
+    }
+
     public void delay(final Map<String, String> labels, final int replicas, final Operator op) throws Exception {
-        Containers.delay(configuration.getStartupTimeout(), 4000L, new PodCountChecker(labels, op, replicas));
+        awaitPods(new PodCountChecker(labels, op, replicas));
     }
 
+    private void awaitPods(final PodCountChecker checker) throws Exception {
+        Instrumentations.call(OperationType.READINESS_WAIT, String.valueOf(checker.labels), new Instrumented<Void, Exception>() {
+            public Void call(Operation operation) throws Exception {
+                operation.attribute(Operation.LABELS, checker.labels).attribute(Operation.COUNT, checker.replicas);
+                try {
+                    Containers.delay(configuration.getStartupTimeout(), getPodCheckPeriod(), checker);
+                } finally {
+                    operation.attribute(Operation.POLLS, checker.polls);
+                }
+                return null;
+            }
+        });
+    }
 
-    public <T> T jolokia(Class<T> expectedReturnType, String podName, Object input) throws Exception {
+    public <T> T jolokia(final Class<T> expectedReturnType, final String podName, Object input) throws Exception {
         if (input instanceof J4pRequest == false) {
             throw new IllegalArgumentException("Input must be a J4pRequest instance!");
         }
 
+        final J4pRequest request = (J4pRequest) input;
+        return Instrumentations.call(OperationType.JOLOKIA, podName, new Instrumented<T, Exception>() {
+            public T call(Operation operation) throws Exception {
+                operation.attribute(Operation.POD, podName).attribute(Operation.TYPE, request.getType());
+                return doJolokia(expectedReturnType, podName, request);
+            }
+        });
+    }
+
+    private <T> T doJolokia(Class<T> expectedReturnType, String podName, J4pRequest request) throws Exception {
         Proxy proxy = getProxy();
 
         String url = proxy.url(podName, "https", 8778, "/jolokia/", null);
         log.info(String.format("Jolokia URL: %s", url));
 
-        J4pRequest request = (J4pRequest) input;
         JSONObject jsonObject = ReflectionUtils.invoke(J4pRequest.class, "toJson", new Class[0], request, new Object[0], JSONObject.class);
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         try (OutputStreamWriter out = new OutputStreamWriter(baos)) {
@@ -227,6 +446,7 @@ public abstract class AbstractOpenShiftAdapter implements OpenShiftAdapter {
         private final Map<String, String> labels;
         private final Operator op;
         private final int replicas;
+        private int polls;
 
         public PodCountChecker(Map<String, String> labels, Operator op, int replicas) {
             this.labels = labels;
@@ -235,6 +455,7 @@ public abstract class AbstractOpenShiftAdapter implements OpenShiftAdapter {
         }
 
         public boolean check() {
+            polls++;
             Set<String> pods = getReadyPods();
             boolean result = op.op(pods.size(), replicas);
             if (result) {
@@ -252,4 +473,29 @@ public abstract class AbstractOpenShiftAdapter implements OpenShiftAdapter {
             return String.format("Number of pod(s) matching labels: %s is %s %s", labels, op, replicas);
         }
     }
+
+    /**
+     * Handles of a resources key; closed once taken for deletion, so late additions are not lost.
+     */
+    private static class ResourceHandles {
+        private final List<OpenShiftResourceHandle> handles = new ArrayList<>();
+        private boolean closed;
+
+        synchronized boolean add(OpenShiftResourceHandle handle) {
+            if (closed) {
+                return false;
+            }
+            handles.add(handle);
+            return true;
+        }
+
+        synchronized List<OpenShiftResourceHandle> close() {
+            closed = true;
+            return new ArrayList<>(handles);
+        }
+
+        synchronized List<OpenShiftResourceHandle> snapshot() {
+            return new ArrayList<>(handles);
+        }
+    }
 }
@@ -26,16 +26,21 @@ package org.jboss.arquillian.ce.adapter;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
+import org.jboss.arquillian.ce.api.ExecResult;
 import org.jboss.arquillian.ce.api.OpenShiftHandle;
 import org.jboss.arquillian.ce.api.model.OpenShiftResource;
+import org.jboss.arquillian.ce.metrics.ApiMetrics;
 import org.jboss.arquillian.ce.portfwd.PortForwardContext;
 import org.jboss.arquillian.ce.proxy.Proxy;
 import org.jboss.arquillian.ce.utils.Operator;
 import org.jboss.arquillian.ce.utils.ParamValue;
 import org.jboss.arquillian.ce.utils.RCContext;
+import org.jboss.shrinkwrap.api.Archive;
 
 /**
  * @author <a href="mailto:ales.justin@jboss.org">Ales Justin</a>
@@ -78,4 +83,38 @@ public interface OpenShiftAdapter extends Closeable, OpenShiftHandle {
     void delay(Map<String, String> labels, int replicas, Operator op) throws Exception;
     
     void cleanRemnants(Map<String, String> labels) throws Exception;
+
+    /**
+     * Current pod log as a stream; unlike {@link #streamLog(String)} the log is not followed.
+     *
+     * @param podName the pod name
+     * @return log as a stream, it's up to the caller to close it
+     * @throws Exception for any error
+     */
+    InputStream dumpLog(String podName) throws Exception;
+
+    /**
+     * Execute command in a pod, feeding it the input.
+     *
+     * @param in the stdin, may be null
+     * @see OpenShiftHandle#exec(String, OutputStream, OutputStream, long, TimeUnit, String...)
+     */
+    ExecResult exec(String podName, InputStream in, OutputStream out, OutputStream err, long timeout, TimeUnit unit, String... command) throws Exception;
+
+    /**
+     * Redeploy the archive by pushing only its changed entries into the current deployment's pods,
+     * if delta deploy mode is on (-Darquillian.delta.deploy=true).
+     *
+     * @param archive the changed archive
+     * @return false if delta deploy is off or nothing is deployed yet, and the caller should do a full deploy
+     * @throws Exception for any error
+     */
+    boolean deployDelta(Archive<?> archive) throws Exception;
+
+    /**
+     * Kubernetes / OpenShift API calls made by this adapter, incl. its proxy.
+     *
+     * @return the API metrics, never null
+     */
+    ApiMetrics getApiMetrics();
 }
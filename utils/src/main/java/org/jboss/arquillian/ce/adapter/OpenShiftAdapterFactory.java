@@ -26,18 +26,33 @@ package org.jboss.arquillian.ce.adapter;
 import java.util.ServiceLoader;
 import java.util.logging.Logger;
 
+import org.jboss.arquillian.ce.tracing.Tracing;
 import org.jboss.arquillian.ce.utils.Configuration;
+import org.jboss.arquillian.ce.utils.Strings;
 
 /**
  * @author <a href="mailto:ales.justin@jboss.org">Ales Justin</a>
  */
 public class OpenShiftAdapterFactory {
+    /**
+     * Provider's class name or simple class name, e.g. InMemoryOpenShiftAdapterProvider.
+     * If not set, the first provider found is used.
+     */
+    public static final String ADAPTER_PROVIDER = "arquillian.openshift.adapter";
+
     public static OpenShiftAdapter getOpenShiftAdapter(Configuration configuration) {
+        String selected = Strings.getSystemPropertyOrEnvVar(ADAPTER_PROVIDER);
         ServiceLoader<OpenShiftAdapterProvider> adapters = ServiceLoader.load(OpenShiftAdapterProvider.class, OpenShiftAdapterFactory.class.getClassLoader());
-        //noinspection LoopStatementThatDoesntLoop
         for (OpenShiftAdapterProvider pp : adapters) {
-            Logger.getLogger(OpenShiftAdapterFactory.class.getName()).info(String.format("Using %s to access OpenShift API ...", pp.getClass().getSimpleName()));
-            return pp.create(configuration);
+            Class<?> clazz = pp.getClass();
+            if (selected == null || selected.equals(clazz.getName()) || selected.equals(clazz.getSimpleName())) {
+                Logger.getLogger(OpenShiftAdapterFactory.class.getName()).info(String.format("Using %s to access OpenShift API ...", clazz.getSimpleName()));
+                OpenShiftAdapter adapter = pp.create(configuration);
+                return Tracing.isEnabled() ? Tracing.wrap(adapter, configuration.getNamespace()) : adapter;
+            }
+        }
+        if (selected != null) {
+            throw new IllegalStateException(String.format("No OpenShiftAdapterProvider %s found!", selected));
         }
         throw new IllegalStateException("No OpenShiftAdapterProvider found!");
     }
@@ -26,6 +26,7 @@ import java.lang.annotation.Annotation;
 
 import org.jboss.arquillian.ce.adapter.AbstractOpenShiftAdapter;
 import org.jboss.arquillian.ce.adapter.OpenShiftAdapter;
+import org.jboss.arquillian.ce.tracing.Tracing;
 import org.jboss.arquillian.container.spi.client.protocol.metadata.ProtocolMetaData;
 import org.jboss.arquillian.core.api.Instance;
 import org.jboss.arquillian.core.api.annotation.ApplicationScoped;
@@ -50,8 +51,9 @@ public abstract class AbstractOpenShiftAdapterResourceProvider implements Resour
     @Override
     public Object lookup(ArquillianResource resource, Annotation... qualifiers) {
         OpenShiftAdapter adapter = openshiftAdapterInstance.get();
-        if (adapter instanceof AbstractOpenShiftAdapter) {
-            AbstractOpenShiftAdapter.class.cast(adapter).setProtocolMetaData(pmdInstance);
+        Object target = Tracing.unwrap(adapter);
+        if (target instanceof AbstractOpenShiftAdapter) {
+            AbstractOpenShiftAdapter.class.cast(target).setProtocolMetaData(pmdInstance);
         }
         return adapter;
     }
@@ -24,6 +24,8 @@
 package org.jboss.arquillian.ce.ext;
 
 import org.jboss.arquillian.ce.api.ConfigurationHandle;
+import org.jboss.arquillian.ce.api.ExecResult;
+import org.jboss.arquillian.ce.api.LogTail;
 import org.jboss.arquillian.ce.api.OpenShiftHandle;
 import org.jboss.arquillian.ce.api.Tools;
 import org.jboss.arquillian.container.test.spi.RemoteLoadableExtension;
@@ -47,6 +49,8 @@ public class UtilsArchiveAppender implements AuxiliaryArchiveAppender {
             .add(new StringAsset(RemoteConfigurationResourceProvider.toProperties(configurationInstance.get())), RemoteConfigurationResourceProvider.FILE_NAME)
             .addClass(ConfigurationHandle.class)
             .addClass(OpenShiftHandle.class)
+            .addClass(ExecResult.class)
+            .addClass(LogTail.class)
             .addClass(Tools.class)
             .addClass(UtilsCEExtensionContainer.class)
             .addClass(RemoteConfigurationResourceProvider.class)
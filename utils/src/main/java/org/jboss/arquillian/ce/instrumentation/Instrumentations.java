@@ -0,0 +1,132 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.arquillian.ce.instrumentation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.logging.Logger;
+
+import org.jboss.arquillian.ce.tracing.Tracing;
+import org.jboss.arquillian.ce.tracing.TracingInstrumentation;
+
+/**
+ * Entry point for instrumented code: starts operations on all {@link Instrumentation}s found.
+ * With none found, operations are a shared no-op, so uninstrumented runs pay (almost) nothing.
+ */
+public final class Instrumentations {
+    private static final Logger log = Logger.getLogger(Instrumentations.class.getName());
+
+    private static final List<Instrumentation> INSTRUMENTATIONS = load();
+
+    private Instrumentations() {
+    }
+
+    private static List<Instrumentation> load() {
+        List<Instrumentation> instrumentations = new ArrayList<>();
+        Iterator<Instrumentation> iterator = ServiceLoader.load(Instrumentation.class, Instrumentations.class.getClassLoader()).iterator();
+        while (true) {
+            try {
+                if (iterator.hasNext() == false) {
+                    break;
+                }
+                Instrumentation instrumentation = iterator.next();
+                log.info(String.format("Using instrumentation: %s", instrumentation.getClass().getName()));
+                instrumentations.add(instrumentation);
+            } catch (ServiceConfigurationError | LinkageError e) {
+                // e.g. JFR instrumentation on an older JDK
+                log.warning(String.format("Cannot load instrumentation: %s", e));
+            }
+        }
+        if (Tracing.isEnabled()) {
+            instrumentations.add(new TracingInstrumentation());
+        }
+        return Collections.unmodifiableList(instrumentations);
+    }
+
+    public static boolean isEnabled() {
+        return INSTRUMENTATIONS.isEmpty() == false;
+    }
+
+    /**
+     * @see Instrumentation#start(OperationType, String)
+     */
+    public static Operation start(OperationType type, String name) {
+        if (INSTRUMENTATIONS.isEmpty()) {
+            return Operation.NOOP;
+        }
+        if (INSTRUMENTATIONS.size() == 1) {
+            return INSTRUMENTATIONS.get(0).start(type, name);
+        }
+        List<Operation> operations = new ArrayList<>(INSTRUMENTATIONS.size());
+        for (Instrumentation instrumentation : INSTRUMENTATIONS) {
+            operations.add(instrumentation.start(type, name));
+        }
+        return new CompositeOperation(operations);
+    }
+
+    /**
+     * Run the body as an operation, reporting its failure, if any, before the operation is closed.
+     */
+    public static <T, E extends Exception> T call(OperationType type, String name, Instrumented<T, E> body) throws E {
+        try (Operation operation = start(type, name)) {
+            try {
+                return body.call(operation);
+            } catch (Throwable t) {
+                operation.failed(t);
+                throw t;
+            }
+        }
+    }
+
+    private static class CompositeOperation implements Operation {
+        private final List<Operation> operations;
+
+        private CompositeOperation(List<Operation> operations) {
+            this.operations = operations;
+        }
+
+        public Operation attribute(String key, Object value) {
+            for (Operation operation : operations) {
+                operation.attribute(key, value);
+            }
+            return this;
+        }
+
+        public void failed(Throwable cause) {
+            for (Operation operation : operations) {
+                operation.failed(cause);
+            }
+        }
+
+        public void close() {
+            for (Operation operation : operations) {
+                operation.close();
+            }
+        }
+    }
+}
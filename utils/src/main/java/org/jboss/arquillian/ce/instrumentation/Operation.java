@@ -0,0 +1,66 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.arquillian.ce.instrumentation;
+
+/**
+ * A running operation; closing it ends it.
+ */
+public interface Operation extends AutoCloseable {
+    String LABELS = "labels";
+    String POD = "pod";
+    String PORT = "port";
+    String COUNT = "count";
+    String POLLS = "polls";
+    String STATUS = "status";
+    String TYPE = "type";
+
+    /**
+     * Does nothing, e.g. when no instrumentation records the operation.
+     */
+    Operation NOOP = new Operation() {
+        public Operation attribute(String key, Object value) {
+            return this;
+        }
+
+        public void failed(Throwable cause) {
+        }
+
+        public void close() {
+        }
+    };
+
+    /**
+     * Add an attribute, e.g. labels or poll count; see the constants for the common ones.
+     *
+     * @return this operation
+     */
+    Operation attribute(String key, Object value);
+
+    /**
+     * The operation failed; it still needs to be closed.
+     */
+    void failed(Throwable cause);
+
+    void close();
+}
@@ -0,0 +1,133 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.arquillian.ce.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Metrics of a single kind of API call: count, errors, latency histogram and response bytes.
+ */
+public class ApiCallMetrics {
+    /**
+     * Upper bounds of the latency histogram buckets, in ms; the last bucket takes all slower calls.
+     */
+    public static final long[] BUCKETS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000};
+
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private final AtomicLong responseBytes = new AtomicLong();
+    private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS.length + 1);
+
+    void record(long nanos, boolean error) {
+        count.incrementAndGet();
+        if (error) {
+            errors.incrementAndGet();
+        }
+        totalNanos.addAndGet(nanos);
+        long max;
+        while (nanos > (max = maxNanos.get()) && maxNanos.compareAndSet(max, nanos) == false) {
+            // retry
+        }
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        int i = 0;
+        while (i < BUCKETS.length && millis >= BUCKETS[i]) {
+            i++;
+        }
+        histogram.incrementAndGet(i);
+    }
+
+    void addResponseBytes(long bytes) {
+        responseBytes.addAndGet(bytes);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getErrors() {
+        return errors.get();
+    }
+
+    public double getErrorRate() {
+        long n = count.get();
+        return n > 0 ? (double) errors.get() / n : 0;
+    }
+
+    public double getAverageMillis() {
+        long n = count.get();
+        return n > 0 ? totalNanos.get() / n / 1000000.0 : 0;
+    }
+
+    public double getMaxMillis() {
+        return maxNanos.get() / 1000000.0;
+    }
+
+    public long getResponseBytes() {
+        return responseBytes.get();
+    }
+
+    /**
+     * @return call counts per bucket, see {@link #BUCKETS}
+     */
+    public long[] getHistogram() {
+        long[] copy = new long[histogram.length()];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = histogram.get(i);
+        }
+        return copy;
+    }
+
+    /**
+     * @return the upper bound of the bucket holding the percentile, in ms; -1 if above the last bound
+     */
+    public long getPercentileMillis(double percentile) {
+        long[] counts = getHistogram();
+        long total = 0;
+        for (long c : counts) {
+            total += c;
+        }
+        long rank = (long) Math.ceil(percentile * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return BUCKETS[i];
+            }
+        }
+        return -1;
+    }
+
+    static String bucket(long millis) {
+        return millis < 0 ? ">" + BUCKETS[BUCKETS.length - 1] : "<" + millis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%s, errors=%s, avg=%.1fms, max=%.1fms, bytes=%s", getCount(), getErrors(), getAverageMillis(), getMaxMillis(), getResponseBytes());
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.arquillian.ce.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Kubernetes / OpenShift API call metrics, per verb and resource kind, e.g. "list pods".
+ */
+public class ApiMetrics {
+    private final ConcurrentMap<String, ApiCallMetrics> calls = new ConcurrentHashMap<>();
+
+    /**
+     * @param verb     the API verb, e.g. list, get, watch, create, patch, delete
+     * @param resource the resource kind, incl. sub-resource, e.g. pods, pods/log
+     */
+    public ApiCallMetrics get(String verb, String resource) {
+        String key = verb + " " + resource;
+        ApiCallMetrics metrics = calls.get(key);
+        if (metrics == null) {
+            ApiCallMetrics previous = calls.putIfAbsent(key, metrics = new ApiCallMetrics());
+            if (previous != null) {
+                metrics = previous;
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * @return a snapshot of all calls so far, keyed by verb and resource
+     */
+    public Map<String, ApiCallMetrics> getCalls() {
+        return new TreeMap<>(calls);
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (ApiCallMetrics metrics : calls.values()) {
+            count += metrics.getCount();
+        }
+        return count;
+    }
+
+    public void reset() {
+        calls.clear();
+    }
+
+    /**
+     * @return one line per verb and resource, busiest first
+     */
+    public String summary() {
+        Map<String, ApiCallMetrics> snapshot = getCalls();
+        if (snapshot.isEmpty()) {
+            return "No API calls.";
+        }
+
+        List<Map.Entry<String, ApiCallMetrics>> sorted = new ArrayList<>(snapshot.entrySet());
+        final Map<String, Long> counts = new HashMap<>(); // counts keep changing, sort by a fixed copy
+        for (Map.Entry<String, ApiCallMetrics> entry : sorted) {
+            counts.put(entry.getKey(), entry.getValue().getCount());
+        }
+        Collections.sort(sorted, new Comparator<Map.Entry<String, ApiCallMetrics>>() {
+            public int compare(Map.Entry<String, ApiCallMetrics> e1, Map.Entry<String, ApiCallMetrics> e2) {
+                return Long.compare(counts.get(e2.getKey()), counts.get(e1.getKey()));
+            }
+        });
+
+        long count = 0, errors = 0, bytes = 0;
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format("%-36s %8s %7s %9s %9s %9s %12s%n", "call", "count", "errors", "avg ms", "p95 ms", "max ms", "bytes"));
+        for (Map.Entry<String, ApiCallMetrics> entry : sorted) {
+            ApiCallMetrics metrics = entry.getValue();
+            builder.append(String.format("%-36s %8d %7d %9.1f %9s %9.1f %12d%n",
+                entry.getKey(), metrics.getCount(), metrics.getErrors(), metrics.getAverageMillis(), ApiCallMetrics.bucket(metrics.getPercentileMillis(0.95)), metrics.getMaxMillis(), metrics.getResponseBytes()));
+            count += metrics.getCount();
+            errors += metrics.getErrors();
+            bytes += metrics.getResponseBytes();
+        }
+        builder.append(String.format("%-36s %8d %7d %42d", "total", count, errors, bytes));
+        return builder.toString();
+    }
+}
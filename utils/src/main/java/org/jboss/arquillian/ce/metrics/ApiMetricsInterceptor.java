@@ -0,0 +1,163 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.arquillian.ce.metrics;
+
+import java.io.IOException;
+import java.util.List;
+
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+
+/**
+ * Records every API call into {@link ApiMetrics}: latency up to the response headers,
+ * errors (IO failures and 4xx / 5xx responses), and response bytes as they are read.
+ */
+public class ApiMetricsInterceptor implements Interceptor {
+    private final ApiMetrics metrics;
+
+    public ApiMetricsInterceptor(ApiMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        ApiCallMetrics call = metrics.get(verb(request), resource(request.url()));
+
+        long start = System.nanoTime();
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException | RuntimeException e) {
+            call.record(System.nanoTime() - start, true);
+            throw e;
+        }
+        call.record(System.nanoTime() - start, response.code() >= 400);
+
+        ResponseBody body = response.body();
+        if (body == null || response.code() == 101) {
+            return response; // web socket upgrade, e.g. exec, the body isn't ours to wrap
+        }
+        return response.newBuilder().body(new CountingResponseBody(body, call)).build();
+    }
+
+    static String verb(Request request) {
+        switch (request.method()) {
+            case "GET":
+                if ("true".equals(request.url().queryParameter("watch"))) {
+                    return "watch";
+                }
+                return isCollection(request.url()) ? "list" : "get";
+            case "POST":
+                return "create";
+            case "PUT":
+                return "update";
+            case "PATCH":
+                return "patch";
+            case "DELETE":
+                return isCollection(request.url()) ? "deletecollection" : "delete";
+            default:
+                return request.method().toLowerCase();
+        }
+    }
+
+    /**
+     * /api/v1/[namespaces/ns/]pods[/name[/sub]] or /apis/group/version/... into "pods" or "pods/sub"
+     */
+    static String resource(HttpUrl url) {
+        List<String> segments = url.pathSegments();
+        int i = base(segments);
+        if (i < 0 || i >= segments.size()) {
+            return "other";
+        }
+        if ("namespaces".equals(segments.get(i)) && segments.size() > i + 2) {
+            i += 2;
+        }
+        String resource = segments.get(i);
+        return segments.size() > i + 2 ? resource + "/" + segments.get(i + 2) : resource;
+    }
+
+    private static boolean isCollection(HttpUrl url) {
+        List<String> segments = url.pathSegments();
+        int i = base(segments);
+        if (i < 0 || i >= segments.size()) {
+            return false;
+        }
+        if ("namespaces".equals(segments.get(i)) && segments.size() > i + 2) {
+            i += 2;
+        }
+        return segments.size() == i + 1;
+    }
+
+    /**
+     * @return index of the first segment after the API version, -1 if not an API path
+     */
+    private static int base(List<String> segments) {
+        if (segments.size() > 1 && ("api".equals(segments.get(0)) || "oapi".equals(segments.get(0)))) {
+            return 2;
+        }
+        if (segments.size() > 2 && "apis".equals(segments.get(0))) {
+            return 3;
+        }
+        return -1;
+    }
+
+    private static class CountingResponseBody extends ResponseBody {
+        private final ResponseBody delegate;
+        private final BufferedSource source;
+
+        private CountingResponseBody(ResponseBody delegate, final ApiCallMetrics call) {
+            this.delegate = delegate;
+            this.source = Okio.buffer(new ForwardingSource(delegate.source()) {
+                @Override
+                public long read(Buffer sink, long byteCount) throws IOException {
+                    long read = super.read(sink, byteCount);
+                    if (read > 0) {
+                        call.addResponseBytes(read);
+                    }
+                    return read;
+                }
+            });
+        }
+
+        public MediaType contentType() {
+            return delegate.contentType();
+        }
+
+        public long contentLength() {
+            return delegate.contentLength();
+        }
+
+        public BufferedSource source() {
+            return source;
+        }
+    }
+}
@@ -30,7 +30,7 @@ import java.io.OutputStream;
 import java.net.InetAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
-import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Logger;
 
 import okhttp3.Connection;
@@ -38,6 +38,9 @@ import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
+import org.jboss.arquillian.ce.instrumentation.Instrumentations;
+import org.jboss.arquillian.ce.instrumentation.Operation;
+import org.jboss.arquillian.ce.instrumentation.OperationType;
 
 /**
  * @author <a href="mailto:ales.justin@jboss.org">Ales Justin</a>
@@ -59,17 +62,22 @@ public class PortForward {
         builder.addHeader("port", String.valueOf(context.getPort()));
         Request request = builder.build();
 
-        List<Interceptor> interceptors = client.networkInterceptors();
+        // the session lasts until the handle is closed
+        final Operation operation = Instrumentations.start(OperationType.PORT_FORWARD, context.getPodName());
+        operation.attribute(Operation.POD, context.getPodName()).attribute(Operation.PORT, context.getPort());
+
         final ConnectionInterceptor interceptor = new ConnectionInterceptor();
-        interceptors.add(interceptor);
+        final ServerSocket server;
         try {
-            client.newCall(request).execute();
-        } finally {
-            interceptors.remove(interceptor);
+            // client's interceptors are immutable, use a derived client (sharing the pool) instead
+            client.newBuilder().addNetworkInterceptor(interceptor).build().newCall(request).execute();
+            server = new ServerSocket(context.getPort(), 0, InetAddress.getLocalHost());
+        } catch (Exception e) {
+            operation.failed(e);
+            operation.close();
+            throw e;
         }
 
-        final ServerSocket server = new ServerSocket(context.getPort(), 0, InetAddress.getLocalHost());
-
         Runnable runnable = new Runnable() {
             public void run() {
                 while (server.isClosed() == false) {
@@ -119,9 +127,14 @@ public class PortForward {
                 return server.getInetAddress();
             }
 
+            private final AtomicBoolean closed = new AtomicBoolean();
+
             public void close() throws IOException {
                 doClose(server);
                 doClose(interceptor.getConnection().socket());
+                if (closed.compareAndSet(false, true)) {
+                    operation.close();
+                }
             }
         };
     }
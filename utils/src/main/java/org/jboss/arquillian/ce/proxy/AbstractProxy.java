@@ -24,15 +24,24 @@
 package org.jboss.arquillian.ce.proxy;
 
 import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.net.ssl.SSLContext;
 
@@ -42,20 +51,31 @@ import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
 import org.jboss.arquillian.ce.api.ManagementHandle;
+import org.jboss.arquillian.ce.instrumentation.Instrumentations;
+import org.jboss.arquillian.ce.instrumentation.Instrumented;
+import org.jboss.arquillian.ce.instrumentation.Operation;
+import org.jboss.arquillian.ce.instrumentation.OperationType;
 import org.jboss.arquillian.ce.portfwd.PortForward;
 import org.jboss.arquillian.ce.utils.Configuration;
 import org.jboss.arquillian.ce.utils.ManagementHandleImpl;
+import org.jboss.arquillian.ce.utils.Strings;
 
 /**
  * @author <a href="mailto:ales.justin@jboss.org">Ales Justin</a>
  */
-public abstract class AbstractProxy<P> implements Proxy {
-    private static final String PROXY_URL = "%s/api/%s/namespaces/%s/pods/%s:%s/proxy%s";
-    private static final String PROXY_URL_WITH_PROTOCOL = "%s/api/%s/namespaces/%s/pods/%s:%s:%s/proxy%s";
+public abstract class AbstractProxy<P> implements Proxy, Closeable {
+    private static final String PROXY_URL_PREFIX = "%s/api/%s/namespaces/%s/pods/";
+    private static final long PODS_CACHE_TTL = TimeUnit.MILLISECONDS.toNanos(Long.parseLong(Strings.getSystemPropertyOrEnvVar("arquillian.proxy.pods.cache.ttl", "2000")));
 
     private boolean sslContextSet;
     protected final Configuration configuration;
 
+    private volatile UrlPrefix urlPrefix;
+    private final ConcurrentMap<Map<String, String>, PodNames> podNames = new ConcurrentHashMap<>();
+    private final AtomicLong podsGeneration = new AtomicLong();
+    private final AtomicBoolean podsWatchStarted = new AtomicBoolean();
+    private volatile boolean closed;
+
     public AbstractProxy(Configuration configuration) {
         this.configuration = configuration;
     }
@@ -76,13 +96,33 @@ public abstract class AbstractProxy<P> implements Proxy {
     }
 
     public String url(String podName, String protocol, int port, String path, String parameters) {
-        String url = String.format(PROXY_URL_WITH_PROTOCOL, configuration.getKubernetesMaster(), configuration.getApiVersion(), configuration.getNamespace(), protocol, podName, port, path);
-        return (parameters != null && parameters.length() > 0) ? url + "?" + parameters : url;
+        StringBuilder url = new StringBuilder(getUrlPrefix()).append(protocol).append(':').append(podName).append(':').append(port).append("/proxy").append(path);
+        return appendParameters(url, parameters);
     }
 
     public String url(String podName, int port, String path, String parameters) {
-        String url = String.format(PROXY_URL, configuration.getKubernetesMaster(), configuration.getApiVersion(), configuration.getNamespace(), podName, port, path);
-        return (parameters != null && parameters.length() > 0) ? url + "?" + parameters : url;
+        StringBuilder url = new StringBuilder(getUrlPrefix()).append(podName).append(':').append(port).append("/proxy").append(path);
+        return appendParameters(url, parameters);
+    }
+
+    private static String appendParameters(StringBuilder url, String parameters) {
+        if (parameters != null && parameters.length() > 0) {
+            url.append('?').append(parameters);
+        }
+        return url.toString();
+    }
+
+    /**
+     * The prefix only changes with the namespace, so we don't format it on every call.
+     */
+    private String getUrlPrefix() {
+        String namespace = configuration.getNamespace();
+        UrlPrefix prefix = urlPrefix;
+        if (prefix == null || prefix.namespace.equals(namespace) == false) {
+            prefix = new UrlPrefix(namespace, String.format(PROXY_URL_PREFIX, configuration.getKubernetesMaster(), configuration.getApiVersion(), namespace));
+            urlPrefix = prefix;
+        }
+        return prefix.prefix;
     }
 
     protected abstract List<P> getPods(Map<String, String> labels);
@@ -91,12 +131,61 @@ public abstract class AbstractProxy<P> implements Proxy {
 
     protected abstract boolean isReady(P pod);
 
+    /**
+     * Start watching pods, calling {@link #invalidatePods()} on any change,
+     * and {@link #podsWatchClosed()} once the watch is gone.
+     * By default there is no watch and we only rely on the pod cache's TTL.
+     */
+    protected void watchPods() {
+    }
+
+    protected void podsWatchClosed() {
+        invalidatePods();
+        // once the proxy is closed, we don't re-open the watch
+        if (closed == false) {
+            podsWatchStarted.set(false);
+        }
+    }
+
+    /**
+     * Drop cached pod names, e.g. when pods were added, deleted or changed.
+     */
+    public void invalidatePods() {
+        podsGeneration.incrementAndGet();
+        podNames.clear();
+    }
+
+    /**
+     * Pod names matching labels; cached for a short time, as hot loops keep invoking the same pods.
+     */
+    protected List<String> getCachedPodNames(Map<String, String> labels) {
+        if (closed == false && podsWatchStarted.compareAndSet(false, true)) {
+            watchPods();
+        }
+
+        Map<String, String> key = (labels == null) ? Collections.<String, String>emptyMap() : labels;
+        PodNames names = podNames.get(key);
+        if (names == null || names.isExpired()) {
+            long generation = podsGeneration.get();
+            names = new PodNames(Collections.unmodifiableList(getPodNames(labels)), System.nanoTime() + PODS_CACHE_TTL);
+            // pods changed while we were listing them, don't cache the stale names
+            if (podsGeneration.get() == generation) {
+                Map<String, String> copy = new HashMap<>(key);
+                podNames.put(copy, names);
+                if (podsGeneration.get() != generation) {
+                    podNames.remove(copy, names);
+                }
+            }
+        }
+        return names.names;
+    }
+
     public String url(Map<String, String> labels, int index, int port, String path, String parameters) {
-        List<P> items = getPods(labels);
+        List<String> items = getCachedPodNames(labels);
         if (index >= items.size()) {
             throw new IllegalStateException(String.format("Not enough pods (%s) to invoke pod index %s!", items.size(), index));
         }
-        String pod = getName(items.get(index));
+        String pod = items.get(index);
 
         return url(pod, port, path, parameters);
     }
@@ -112,20 +201,39 @@ public abstract class AbstractProxy<P> implements Proxy {
         return names;
     }
 
+    public List<String> getPodNames(Map<String, String> labels) {
+        List<String> names = new ArrayList<>();
+        for (P pod : getPods(labels)) {
+            names.add(getName(pod));
+        }
+        return names;
+    }
+
     public String findPod(Map<String, String> labels, int index) {
-        List<P> items = getPods(labels);
+        List<String> items = getCachedPodNames(labels);
         if (index >= items.size()) {
             throw new IllegalStateException(String.format("Not enough pods (%s) to invoke pod index %s!", items, index));
         } else {
-            return getName(items.get(index));
+            return items.get(index);
         }
     }
 
     protected abstract OkHttpClient getHttpClient();
 
-    public <T> T post(String url, Class<T> returnType, Object requestObject) throws Exception {
-        final OkHttpClient httpClient = getHttpClient();
+    /**
+     * Invoke the pod proxy, reporting the invocation as an instrumented operation.
+     */
+    private Response execute(final Request request) throws IOException {
+        return Instrumentations.call(OperationType.PROXY_INVOCATION, request.url().toString(), new Instrumented<Response, IOException>() {
+            public Response call(Operation operation) throws IOException {
+                Response response = getHttpClient().newCall(request).execute();
+                operation.attribute(Operation.STATUS, response.code());
+                return response;
+            }
+        });
+    }
 
+    public <T> T post(String url, Class<T> returnType, Object requestObject) throws Exception {
         Request.Builder builder = new Request.Builder();
         builder.url(url);
 
@@ -142,7 +250,7 @@ public abstract class AbstractProxy<P> implements Proxy {
         }
 
         Request request = builder.build();
-        Response response = httpClient.newCall(request).execute();
+        Response response = execute(request);
 
         int responseCode = response.code();
 
@@ -167,8 +275,6 @@ public abstract class AbstractProxy<P> implements Proxy {
     }
 
     public InputStream post(String url, String encoding, byte[] bytes) throws IOException {
-        final OkHttpClient httpClient = getHttpClient();
-
         Request.Builder builder = new Request.Builder();
         builder.url(url);
 
@@ -178,7 +284,7 @@ public abstract class AbstractProxy<P> implements Proxy {
         }
 
         Request request = builder.build();
-        Response response = httpClient.newCall(request).execute();
+        Response response = execute(request);
 
         return response.body().byteStream();
     }
@@ -199,12 +305,40 @@ public abstract class AbstractProxy<P> implements Proxy {
 
     public int status(String url) {
         try {
-            OkHttpClient httpClient = getHttpClient();
             Request request = new Request.Builder().url(url).build();
-            Response response = httpClient.newCall(request).execute();
+            Response response = execute(request);
             return response.code();
         } catch (Exception e) {
             throw new IllegalStateException(e);
         }
     }
+
+    public void close() throws IOException {
+        closed = true;
+        invalidatePods();
+    }
+
+    private static class UrlPrefix {
+        private final String namespace;
+        private final String prefix;
+
+        private UrlPrefix(String namespace, String prefix) {
+            this.namespace = namespace;
+            this.prefix = prefix;
+        }
+    }
+
+    private static class PodNames {
+        private final List<String> names;
+        private final long expires;
+
+        private PodNames(List<String> names, long expires) {
+            this.names = names;
+            this.expires = expires;
+        }
+
+        private boolean isExpired() {
+            return System.nanoTime() - expires >= 0;
+        }
+    }
 }
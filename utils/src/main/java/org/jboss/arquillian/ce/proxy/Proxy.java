@@ -24,6 +24,7 @@
 package org.jboss.arquillian.ce.proxy;
 
 import java.io.InputStream;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -52,6 +53,8 @@ public interface Proxy {
 
     Set<String> getReadyPods(Map<String, String> labels);
 
+    List<String> getPodNames(Map<String, String> labels);
+
     <T> T post(String url, Class<T> returnType, Object requestObject) throws Exception;
 
     InputStream post(String url, String encoding, byte[] bytes) throws Exception;
@@ -28,8 +28,10 @@ import java.io.InputStream;
 import java.lang.annotation.Annotation;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.Callable;
 import java.util.logging.Logger;
 
 import org.jboss.arquillian.ce.adapter.OpenShiftAdapter;
@@ -41,6 +43,7 @@ import org.jboss.arquillian.ce.api.RoleBinding;
 import org.jboss.arquillian.ce.api.RoleBindings;
 import org.jboss.arquillian.ce.api.Template;
 import org.jboss.arquillian.ce.api.TemplateResources;
+import org.jboss.arquillian.ce.utils.ParallelTasks;
 import org.jboss.arquillian.ce.utils.StringResolver;
 import org.jboss.arquillian.ce.utils.Strings;
 import org.jboss.shrinkwrap.api.Archive;
@@ -57,75 +60,105 @@ public class OpenShiftResourceFactory {
     public static final String ARCHIVE_PREFIX = "archive:";
     public static final String URL_PREFIX = "http";
 
+    /**
+     * Max number of resources (and then bindings) created in parallel; sequential by default.
+     */
+    public static final String RESOURCES_THREADS = "arquillian.resources.threads";
+
+    private static final int THREADS = Integer.parseInt(Strings.getSystemPropertyOrEnvVar(RESOURCES_THREADS, "1"));
+
     private static final OSRFinder OSR_FINDER = new OSRFinder();
     private static final RBFinder RB_FINDER = new RBFinder();
     private static final ARSAFinder ARSA_FINDER = new ARSAFinder();
     private static final TEMPFinder TEMP_FINDER = new TEMPFinder();
 
-    public static void createResources(String resourcesKey, OpenShiftAdapter adapter, Archive<?> archive, Class<?> testClass, Properties properties) {
+    private static final ClassValue<Descriptor> DESCRIPTORS = new ClassValue<Descriptor>() {
+        protected Descriptor computeValue(Class<?> testClass) {
+            return new Descriptor(testClass);
+        }
+    };
+
+    public static void createResources(final String resourcesKey, final OpenShiftAdapter adapter, final Archive<?> archive, final Class<?> testClass, Properties properties) {
         try {
             final StringResolver resolver = Strings.createStringResolver(properties);
 
-            List<OpenShiftResource> openShiftResources = new ArrayList<>();
-            OSR_FINDER.findAnnotations(openShiftResources, testClass);
-            for (OpenShiftResource osr : openShiftResources) {
-                String file = resolver.resolve(osr.value());
-
-                InputStream stream;
-                if (file.startsWith(URL_PREFIX)) {
-                    stream = new URL(file).openStream();
-                } else if (file.startsWith(CLASSPATH_PREFIX)) {
-                    String resourceName = file.substring(CLASSPATH_PREFIX.length());
-                    stream = testClass.getClassLoader().getResourceAsStream(resourceName);
-                    if (stream == null) {
-                        throw new IllegalArgumentException("Could not find resource on classpath: " + resourceName);
+            // resolved upfront, tasks may run in parallel
+            Descriptor descriptor = DESCRIPTORS.get(testClass);
+            List<Callable<Void>> resources = new ArrayList<>();
+            for (OpenShiftResource osr : descriptor.resources) {
+                final String file = resolver.resolve(osr.value());
+                resources.add(new Callable<Void>() {
+                    public Void call() throws Exception {
+                        InputStream stream = openStream(file, archive, testClass);
+                        log.info(String.format("Creating new OpenShift resource: %s", file));
+                        adapter.createResource(resourcesKey, stream);
+                        return null;
                     }
-                } else if (file.startsWith(ARCHIVE_PREFIX)) {
-                    String resourceName = file.substring(ARCHIVE_PREFIX.length());
-                    Node node = archive.get(resourceName);
-                    if (node == null) {
-                        throw new IllegalArgumentException("Could not find resource in Arquillian archive: " + resourceName);
-                    }
-                    stream = node.getAsset().openStream();
-                } else {
-                    stream = new ByteArrayInputStream(file.getBytes());
-                }
-
-                log.info(String.format("Creating new OpenShift resource: %s", file));
-                adapter.createResource(resourcesKey, stream);
+                });
             }
 
-            List<RoleBinding> roleBindings = new ArrayList<>();
-            RB_FINDER.findAnnotations(roleBindings, testClass);
-            for (RoleBinding rb : roleBindings) {
-                String roleRefName = resolver.resolve(rb.roleRefName());
-                String userName = resolver.resolve(rb.userName());
-                log.info(String.format("Adding new role binding: %s / %s", roleRefName, userName));
-                adapter.addRoleBinding(resourcesKey, roleRefName, userName);
+            List<Callable<Void>> bindings = new ArrayList<>();
+            for (RoleBinding rb : descriptor.roleBindings) {
+                final String roleRefName = resolver.resolve(rb.roleRefName());
+                final String userName = resolver.resolve(rb.userName());
+                bindings.add(new Callable<Void>() {
+                    public Void call() throws Exception {
+                        log.info(String.format("Adding new role binding: %s / %s", roleRefName, userName));
+                        adapter.addRoleBinding(resourcesKey, roleRefName, userName);
+                        return null;
+                    }
+                });
             }
 
-            List<AddRoleToServiceAccount> arsaBindings = new ArrayList<>();
-            ARSA_FINDER.findAnnotations(arsaBindings, testClass);
-            for (AddRoleToServiceAccount arsa : arsaBindings) {
-                String role = resolver.resolve(arsa.role());
+            for (AddRoleToServiceAccount arsa : descriptor.arsaBindings) {
+                final String role = resolver.resolve(arsa.role());
                 String saPattern = String.format("system:serviceaccount:${kubernetes.namespace}:%s", arsa.serviceAccount());
-                String serviceAccount = resolver.resolve(saPattern);
-                log.info(String.format("Adding role %s to service account %s", role, serviceAccount));
-                adapter.addRoleBinding(resourcesKey, role, serviceAccount);
+                final String serviceAccount = resolver.resolve(saPattern);
+                bindings.add(new Callable<Void>() {
+                    public Void call() throws Exception {
+                        log.info(String.format("Adding role %s to service account %s", role, serviceAccount));
+                        adapter.addRoleBinding(resourcesKey, role, serviceAccount);
+                        return null;
+                    }
+                });
             }
+
+            // bindings only once all resources, e.g. service accounts, exist
+            ParallelTasks.run("resources", THREADS, resources);
+            ParallelTasks.run("resources", THREADS, bindings);
         } catch (Exception e) {
             throw new IllegalStateException(e);
         }
     }
 
+    private static InputStream openStream(String file, Archive<?> archive, Class<?> testClass) throws Exception {
+        if (file.startsWith(URL_PREFIX)) {
+            return new URL(file).openStream();
+        } else if (file.startsWith(CLASSPATH_PREFIX)) {
+            String resourceName = file.substring(CLASSPATH_PREFIX.length());
+            InputStream stream = testClass.getClassLoader().getResourceAsStream(resourceName);
+            if (stream == null) {
+                throw new IllegalArgumentException("Could not find resource on classpath: " + resourceName);
+            }
+            return stream;
+        } else if (file.startsWith(ARCHIVE_PREFIX)) {
+            String resourceName = file.substring(ARCHIVE_PREFIX.length());
+            Node node = archive.get(resourceName);
+            if (node == null) {
+                throw new IllegalArgumentException("Could not find resource in Arquillian archive: " + resourceName);
+            }
+            return node.getAsset().openStream();
+        } else {
+            return new ByteArrayInputStream(file.getBytes());
+        }
+    }
+
     /**
      * Aggregates a list of templates specified by @Template
      */
     public static List<Template> getTemplates(Class<?> testClass) {
         try {
-            List<Template> templates = new ArrayList<>();
-            TEMP_FINDER.findAnnotations(templates, testClass);
-            return templates;
+            return new ArrayList<>(DESCRIPTORS.get(testClass).templates);
         } catch (Exception e) {
             throw new IllegalStateException(e);
         }
@@ -136,14 +169,7 @@ public class OpenShiftResourceFactory {
      * asynchronously.
      */
     public static boolean syncInstantiation(Class<?> testClass) {
-    	List<Template> templates = new ArrayList<>();
-        TemplateResources tr = TEMP_FINDER.findAnnotations(templates, testClass);
-        if (tr == null) {
-        	/* Default to synchronous instantiation */
-        	return true;
-        } else {
-        	return tr.syncInstantiation();
-        }
+        return DESCRIPTORS.get(testClass).syncInstantiation;
     }
 
     public static void deleteResources(String resourcesKey, OpenShiftAdapter adapter) {
@@ -162,28 +188,54 @@ public class OpenShiftResourceFactory {
 
         protected abstract V[] toSingles(U u);
 
-        U findAnnotations(List<V> annotations, Class<?> testClass) {
-            if (testClass == Object.class) {
-                return null;
-            }
+        /**
+         * @param hierarchy the classes, top-most superclass first
+         * @return annotations, top-most superclass' first; per class the single one, then the wrapped ones
+         */
+        List<V> findAnnotations(List<Class<?>> hierarchy) {
+            List<V> annotations = new ArrayList<>();
+            for (Class<?> clazz : hierarchy) {
+                V ann = clazz.getAnnotation(getSingleType());
+                if (ann != null) {
+                    annotations.add(ann);
+                }
 
-            U anns = testClass.getAnnotation(getWrapperType());
-            if (anns != null) {
-                V[] ann = toSingles(anns);
-                for (int i = ann.length - 1; i >= 0; i--) {
-                    annotations.add(0, ann[i]);
+                U anns = clazz.getAnnotation(getWrapperType());
+                if (anns != null) {
+                    Collections.addAll(annotations, toSingles(anns));
                 }
             }
+            return Collections.unmodifiableList(annotations);
+        }
+
+    }
 
-            V ann = testClass.getAnnotation(getSingleType());
-            if (ann != null) {
-                annotations.add(0, ann);
+    /**
+     * All resource annotations of a test class and its superclasses, scanned once per class.
+     */
+    private static class Descriptor {
+        private final List<OpenShiftResource> resources;
+        private final List<RoleBinding> roleBindings;
+        private final List<AddRoleToServiceAccount> arsaBindings;
+        private final List<Template> templates;
+        private final boolean syncInstantiation;
+
+        private Descriptor(Class<?> testClass) {
+            List<Class<?>> hierarchy = new ArrayList<>();
+            for (Class<?> clazz = testClass; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+                hierarchy.add(clazz);
             }
+            Collections.reverse(hierarchy);
 
-            findAnnotations(annotations, testClass.getSuperclass());
-	    return anns;
-        }
+            resources = OSR_FINDER.findAnnotations(hierarchy);
+            roleBindings = RB_FINDER.findAnnotations(hierarchy);
+            arsaBindings = ARSA_FINDER.findAnnotations(hierarchy);
+            templates = TEMP_FINDER.findAnnotations(hierarchy);
 
+            TemplateResources tr = testClass.getAnnotation(TemplateResources.class);
+            /* Default to synchronous instantiation */
+            syncInstantiation = (tr == null) || tr.syncInstantiation();
+        }
     }
 
     private static class OSRFinder extends Finder<OpenShiftResources, OpenShiftResource> {
@@ -0,0 +1,111 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.arquillian.ce.tracing;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A timed operation in a trace; ended spans are immutable.
+ */
+public class Span {
+    private final String traceId;
+    private final String spanId;
+    private final Span parent;
+    private final String name;
+    private final long startNanos; // epoch
+    private final Map<String, Object> attributes = new LinkedHashMap<>();
+    private volatile long endNanos;
+    private volatile String error;
+
+    Span(String traceId, String spanId, Span parent, String name, long startNanos) {
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parent = parent;
+        this.name = name;
+        this.startNanos = startNanos;
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public String getSpanId() {
+        return spanId;
+    }
+
+    public Span getParent() {
+        return parent;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public long getEndNanos() {
+        return endNanos;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public synchronized Map<String, Object> getAttributes() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(attributes));
+    }
+
+    public synchronized Span attribute(String key, Object value) {
+        if (endNanos == 0 && value != null) {
+            attributes.put(key, value);
+        }
+        return this;
+    }
+
+    public void failed(Throwable cause) {
+        if (endNanos == 0) {
+            error = String.valueOf(cause);
+        }
+    }
+
+    /**
+     * @return false if already ended
+     */
+    synchronized boolean end(long nanos) {
+        if (endNanos != 0) {
+            return false;
+        }
+        endNanos = Math.max(nanos, startNanos + 1);
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s [%s/%s]", name, traceId, spanId);
+    }
+}
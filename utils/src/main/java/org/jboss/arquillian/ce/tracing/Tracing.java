@@ -0,0 +1,272 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.arquillian.ce.tracing;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import org.jboss.arquillian.ce.adapter.OpenShiftAdapter;
+import org.jboss.arquillian.ce.utils.Strings;
+import org.jboss.dmr.ModelNode;
+
+/**
+ * Optional tracing of adapter and proxy calls, and of the instrumented operations they run.
+ * Spans nest per thread, and are exported as OTLP JSON into the file set by {@link #TRACING_FILE},
+ * e.g. to be imported into Jaeger or any other OTLP aware viewer.
+ * <p/>
+ * Tracing is off unless the file is set; spans are then a shared no-op.
+ */
+public final class Tracing {
+    private static final Logger log = Logger.getLogger(Tracing.class.getName());
+
+    public static final String TRACING_FILE = "arquillian.tracing.file";
+    public static final String TRACING_MAX_SPANS = "arquillian.tracing.max.spans";
+
+    private static final String FILE = Strings.getSystemPropertyOrEnvVar(TRACING_FILE);
+    private static final int MAX_SPANS = Integer.parseInt(Strings.getSystemPropertyOrEnvVar(TRACING_MAX_SPANS, "100000"));
+
+    private static final String SERVICE_NAME = "ce-arq";
+    private static final String SCOPE_NAME = "org.jboss.arquillian.ce";
+    private static final int SPAN_KIND_INTERNAL = 1;
+    private static final int STATUS_CODE_ERROR = 2;
+
+    // epoch nanos are derived from nanoTime, so spans of one run are consistent with each other
+    private static final long EPOCH_NANOS = System.currentTimeMillis() * 1000000L;
+    private static final long BASE_NANOS = System.nanoTime();
+
+    private static final ThreadLocal<Span> CURRENT = new ThreadLocal<>();
+    private static final Queue<Span> SPANS = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger COUNT = new AtomicInteger();
+
+    private static final Span DISABLED = new Span("", "", null, "disabled", 0);
+
+    static {
+        DISABLED.end(1); // ignores attributes, cannot be ended again
+        if (isEnabled()) {
+            log.info(String.format("Tracing into %s", new File(FILE).getAbsolutePath()));
+            Runtime.getRuntime().addShutdownHook(new Thread("ce-arq-tracing") {
+                public void run() {
+                    export();
+                }
+            });
+        }
+    }
+
+    private Tracing() {
+    }
+
+    public static boolean isEnabled() {
+        return Strings.isNotNullOrEmpty(FILE);
+    }
+
+    /**
+     * Start a span as a child of the current thread's span, and make it the current one until ended.
+     */
+    public static Span start(String name) {
+        if (isEnabled() == false) {
+            return DISABLED;
+        }
+        Span span = create(name);
+        CURRENT.set(span);
+        return span;
+    }
+
+    /**
+     * Start a span as a child of the current thread's span, without making it the current one;
+     * for long running spans which may end on another thread, e.g. port forwarding.
+     */
+    public static Span startDetached(String name) {
+        if (isEnabled() == false) {
+            return DISABLED;
+        }
+        return create(name);
+    }
+
+    public static void end(Span span) {
+        if (span.end(nanos()) == false) {
+            return;
+        }
+        if (CURRENT.get() == span) {
+            if (span.getParent() != null) {
+                CURRENT.set(span.getParent());
+            } else {
+                CURRENT.remove();
+            }
+        }
+        int count = COUNT.incrementAndGet();
+        if (count <= MAX_SPANS) {
+            SPANS.add(span);
+        } else if (count == MAX_SPANS + 1) {
+            log.warning(String.format("More than %s spans, dropping the rest; see %s", MAX_SPANS, TRACING_MAX_SPANS));
+        }
+    }
+
+    /**
+     * Trace all adapter calls, incl. the ones of its proxy.
+     *
+     * @param adapter   the adapter
+     * @param namespace the adapter's namespace, added to every span
+     * @return traced adapter
+     */
+    public static OpenShiftAdapter wrap(OpenShiftAdapter adapter, String namespace) {
+        return wrap(OpenShiftAdapter.class, adapter, namespace);
+    }
+
+    static <T> T wrap(Class<T> type, T target, String namespace) {
+        InvocationHandler handler = new TracingHandler(type, target, namespace);
+        return type.cast(Proxy.newProxyInstance(Tracing.class.getClassLoader(), new Class[]{type}, handler));
+    }
+
+    /**
+     * @return the traced object if wrapped, else the object itself
+     */
+    public static Object unwrap(Object object) {
+        if (object != null && Proxy.isProxyClass(object.getClass())) {
+            InvocationHandler handler = Proxy.getInvocationHandler(object);
+            if (handler instanceof TracingHandler) {
+                return TracingHandler.class.cast(handler).getTarget();
+            }
+        }
+        return object;
+    }
+
+    /**
+     * (Re)write all spans ended so far.
+     */
+    public static synchronized void export() {
+        if (isEnabled() == false) {
+            return;
+        }
+        List<Span> spans = new ArrayList<>(SPANS);
+        File file = new File(FILE);
+        try {
+            File dir = file.getAbsoluteFile().getParentFile();
+            if (dir.exists() == false && dir.mkdirs() == false) {
+                throw new IOException(String.format("Cannot create tracing dir: %s", dir));
+            }
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+                writer.write(toOtlp(spans).toJSONString(true));
+            }
+            log.info(String.format("Exported %s span(s) into %s", spans.size(), file.getAbsolutePath()));
+        } catch (IOException e) {
+            log.warning(String.format("Cannot export spans into %s: %s", file, e));
+        }
+    }
+
+    private static Span create(String name) {
+        Span parent = CURRENT.get();
+        String traceId = (parent != null) ? parent.getTraceId() : randomId(2);
+        return new Span(traceId, randomId(1), parent, name, nanos());
+    }
+
+    private static long nanos() {
+        return EPOCH_NANOS + (System.nanoTime() - BASE_NANOS);
+    }
+
+    private static String randomId(int longs) {
+        StringBuilder builder = new StringBuilder(16 * longs);
+        for (int i = 0; i < longs; i++) {
+            builder.append(String.format("%016x", ThreadLocalRandom.current().nextLong()));
+        }
+        return builder.toString();
+    }
+
+    static ModelNode toOtlp(List<Span> spans) {
+        ModelNode resourceSpans = new ModelNode();
+        addAttribute(resourceSpans.get("resource", "attributes"), "service.name", SERVICE_NAME);
+        ModelNode scopeSpans = new ModelNode();
+        scopeSpans.get("scope", "name").set(SCOPE_NAME);
+        ModelNode list = scopeSpans.get("spans").setEmptyList();
+        for (Span span : spans) {
+            ModelNode node = new ModelNode();
+            node.get("traceId").set(span.getTraceId());
+            node.get("spanId").set(span.getSpanId());
+            if (span.getParent() != null) {
+                node.get("parentSpanId").set(span.getParent().getSpanId());
+            }
+            node.get("name").set(span.getName());
+            node.get("kind").set(SPAN_KIND_INTERNAL);
+            // 64-bit integers are strings in OTLP JSON
+            node.get("startTimeUnixNano").set(String.valueOf(span.getStartNanos()));
+            node.get("endTimeUnixNano").set(String.valueOf(span.getEndNanos()));
+            ModelNode attributes = node.get("attributes").setEmptyList();
+            for (Map.Entry<String, Object> entry : span.getAttributes().entrySet()) {
+                addAttribute(attributes, entry.getKey(), entry.getValue());
+            }
+            if (span.getError() != null) {
+                node.get("status", "code").set(STATUS_CODE_ERROR);
+                node.get("status", "message").set(span.getError());
+            }
+            list.add(node);
+        }
+        resourceSpans.get("scopeSpans").add(scopeSpans);
+
+        ModelNode otlp = new ModelNode();
+        otlp.get("resourceSpans").add(resourceSpans);
+        return otlp;
+    }
+
+    private static void addAttribute(ModelNode attributes, String key, Object value) {
+        ModelNode attribute = new ModelNode();
+        attribute.get("key").set(key);
+        if (value instanceof Boolean) {
+            attribute.get("value", "boolValue").set((Boolean) value);
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short) {
+            attribute.get("value", "intValue").set(String.valueOf(value));
+        } else if (value instanceof Map) {
+            attribute.get("value", "stringValue").set(selector((Map<?, ?>) value));
+        } else {
+            attribute.get("value", "stringValue").set(String.valueOf(value));
+        }
+        attributes.add(attribute);
+    }
+
+    /**
+     * @return labels as a label selector, e.g. app=foo,deploymentConfig=bar
+     */
+    static String selector(Map<?, ?> labels) {
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<?, ?> entry : labels.entrySet()) {
+            if (builder.length() > 0) {
+                builder.append(',');
+            }
+            builder.append(entry.getKey()).append('=').append(entry.getValue());
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.arquillian.ce.tracing;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.jboss.arquillian.ce.proxy.Proxy;
+
+/**
+ * Wraps each call in a span named after the interface and method, e.g. OpenShiftAdapter.delay.
+ * Cheap local calls are not traced; a returned {@link Proxy} is traced as well.
+ */
+class TracingHandler implements InvocationHandler {
+    private static final Set<String> UNTRACED = new HashSet<>(Arrays.asList(
+        "getProxy", "getApiMetrics", "getSSLContext", "setDefaultSSLContext", "url", "createPortForward", "getLabels"
+    ));
+
+    private final Class<?> type;
+    private final Object target;
+    private final String namespace;
+
+    private Object proxy; // target's proxy
+    private Proxy tracedProxy;
+
+    TracingHandler(Class<?> type, Object target, String namespace) {
+        this.type = type;
+        this.target = target;
+        this.namespace = namespace;
+    }
+
+    Object getTarget() {
+        return target;
+    }
+
+    public Object invoke(Object wrapper, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            switch (method.getName()) {
+                case "equals":
+                    return wrapper == args[0];
+                case "hashCode":
+                    return System.identityHashCode(wrapper);
+                default:
+                    return "Traced " + target;
+            }
+        }
+
+        if (UNTRACED.contains(method.getName())) {
+            Object result = invoke(method, args);
+            if (result instanceof Proxy) {
+                return traced((Proxy) result);
+            }
+            return result;
+        }
+
+        Span span = Tracing.start(type.getSimpleName() + "." + method.getName());
+        try {
+            attributes(span, method, args);
+            return invoke(method, args);
+        } catch (Throwable t) {
+            span.failed(t);
+            throw t;
+        } finally {
+            Tracing.end(span);
+        }
+    }
+
+    private Object invoke(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private synchronized Proxy traced(Proxy current) {
+        if (proxy != current) {
+            proxy = current;
+            tracedProxy = Tracing.wrap(Proxy.class, current, namespace);
+        }
+        return tracedProxy;
+    }
+
+    private void attributes(Span span, Method method, Object[] args) {
+        span.attribute("k8s.namespace.name", namespace);
+        if (args == null || args.length == 0) {
+            return;
+        }
+        Class<?>[] types = method.getParameterTypes();
+        switch (method.getName()) {
+            case "processTemplateAndCreateResources":
+                span.attribute("ce-arq.template.key", args[0]);
+                span.attribute("ce-arq.template.url", args[1]);
+                break;
+            case "deleteTemplate":
+                span.attribute("ce-arq.template.key", args[0]);
+                break;
+            case "createResource":
+            case "deleteResources":
+            case "addRoleBinding":
+                span.attribute("ce-arq.resources.key", args[0]);
+                break;
+            case "delay":
+                span.attribute("ce-arq.replicas", args[1]);
+                span.attribute("ce-arq.operator", args[2]);
+                break;
+            case "deployPod":
+            case "deployReplicationController":
+                span.attribute("ce-arq.name", args[0]);
+                break;
+            case "dumpLog":
+            case "streamLog":
+            case "exec":
+                if (types[0] == String.class) {
+                    span.attribute("k8s.pod.name", args[0]);
+                }
+                break;
+            case "post":
+            case "status":
+            case "execute":
+                if (types[0] == String.class && types.length > 1 && types[1] == int.class) {
+                    span.attribute("k8s.pod.name", args[0]);
+                    span.attribute("ce-arq.port", args[1]);
+                } else if (types[0] == String.class) {
+                    span.attribute("url.full", args[0]);
+                }
+                break;
+        }
+        for (int i = 0; i < types.length; i++) {
+            if (Map.class.isAssignableFrom(types[i]) && args[i] != null) {
+                span.attribute("ce-arq.selector", Tracing.selector((Map<?, ?>) args[i]));
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.arquillian.ce.tracing;
+
+import org.jboss.arquillian.ce.instrumentation.Instrumentation;
+import org.jboss.arquillian.ce.instrumentation.Operation;
+import org.jboss.arquillian.ce.instrumentation.OperationType;
+
+/**
+ * Turns instrumented operations into spans, nested in the adapter call running them.
+ */
+public class TracingInstrumentation implements Instrumentation {
+    public Operation start(OperationType type, String name) {
+        String spanName = "ce-arq." + type.name().toLowerCase();
+        // port forwarding outlives the call starting it
+        Span span = (type == OperationType.PORT_FORWARD) ? Tracing.startDetached(spanName) : Tracing.start(spanName);
+        span.attribute("ce-arq.name", name);
+        return new SpanOperation(span);
+    }
+
+    private static class SpanOperation implements Operation {
+        private final Span span;
+
+        private SpanOperation(Span span) {
+            this.span = span;
+        }
+
+        public Operation attribute(String key, Object value) {
+            span.attribute("ce-arq." + key, value);
+            return this;
+        }
+
+        public void failed(Throwable cause) {
+            span.failed(cause);
+        }
+
+        public void close() {
+            Tracing.end(span);
+        }
+    }
+}
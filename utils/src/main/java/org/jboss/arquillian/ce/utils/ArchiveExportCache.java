@@ -0,0 +1,157 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.arquillian.ce.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+import org.jboss.shrinkwrap.api.Archive;
+import org.jboss.shrinkwrap.api.ArchivePath;
+import org.jboss.shrinkwrap.api.Node;
+import org.jboss.shrinkwrap.api.asset.ArchiveAsset;
+import org.jboss.shrinkwrap.api.asset.Asset;
+
+/**
+ * Exports archives into files named after a hash of their content,
+ * so an archive with the same content, e.g. a deployment shared by test classes, is exported only once;
+ * also across runs, as long as the cache dir is kept.
+ */
+public class ArchiveExportCache {
+    private static final Logger log = Logger.getLogger(ArchiveExportCache.class.getName());
+
+    private static final String CACHE_DIR = Strings.getSystemPropertyOrEnvVar("arquillian.archive.cache.dir", "target/ce-arq-archives");
+    private static final int BUFFER_SIZE = 8192;
+
+    // node markers, hashed after each path
+    private static final byte DIRECTORY = 0;
+    private static final byte ASSET = 1;
+    private static final byte NESTED = 2;
+    private static final byte END = 3;
+
+    private static final ArchiveExportCache INSTANCE = new ArchiveExportCache(new File(CACHE_DIR));
+
+    private final File dir;
+    private final Map<String, File> exported = new ConcurrentHashMap<>();
+
+    public ArchiveExportCache(File dir) {
+        this.dir = dir;
+    }
+
+    public static ArchiveExportCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Export the archive, unless an archive with the same name and content was already exported.
+     *
+     * @param archive the archive
+     * @return the exported archive, named as the archive; it must not be modified
+     */
+    public File export(Archive<?> archive) throws IOException {
+        String hash = hash(archive);
+        String key = hash + "/" + archive.getName();
+
+        File file = exported.get(key);
+        if (file != null && file.exists()) {
+            return file;
+        }
+
+        file = new File(new File(dir, hash), archive.getName());
+        if (file.exists() == false) {
+            Timer timer = new Timer();
+            File parent = file.getParentFile();
+            if (parent.exists() == false && parent.mkdirs() == false && parent.exists() == false) {
+                throw new IOException(String.format("Cannot create archive cache dir: %s", parent));
+            }
+            // export aside and move, so a concurrent or killed export never leaves a partial file behind;
+            // entry timestamps are the export time, so two JVMs exporting the same content may write different bytes:
+            // the last move wins, which is harmless, as both files hold the same entries
+            File tmp = File.createTempFile(archive.getName(), ".tmp", parent);
+            try {
+                ParallelArchiveExporter.exportTo(archive, tmp);
+                Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp.toPath());
+            }
+            log.info(String.format("Exported %s in %sms", file, timer.elapsed() / 1000000L));
+        } else {
+            log.fine(String.format("Reusing exported %s", file));
+        }
+        exported.put(key, file);
+        return file;
+    }
+
+    /**
+     * Hash of the archive's paths and content, incl. nested archives'.
+     *
+     * @param archive the archive
+     * @return hex SHA-256 hash
+     */
+    public static String hash(Archive<?> archive) throws IOException {
+        MessageDigest digest = Archives.sha256();
+        update(digest, archive, new byte[BUFFER_SIZE]);
+        return Archives.hex(digest);
+    }
+
+    private static void update(MessageDigest digest, Archive<?> archive, byte[] buffer) throws IOException {
+        // content is keyed by path, sorted so the hash doesn't depend on the order nodes were added
+        Map<String, Node> content = new TreeMap<>();
+        for (Map.Entry<ArchivePath, Node> entry : archive.getContent().entrySet()) {
+            content.put(entry.getKey().get(), entry.getValue());
+        }
+        for (Map.Entry<String, Node> entry : content.entrySet()) {
+            digest.update(entry.getKey().getBytes(StandardCharsets.UTF_8));
+            Asset asset = entry.getValue().getAsset();
+            if (asset instanceof ArchiveAsset) {
+                digest.update(NESTED);
+                update(digest, ((ArchiveAsset) asset).getArchive(), buffer);
+            } else if (asset != null) {
+                digest.update(ASSET);
+                long length = 0;
+                try (InputStream stream = asset.openStream()) {
+                    int n;
+                    while ((n = stream.read(buffer)) != -1) {
+                        digest.update(buffer, 0, n);
+                        length += n;
+                    }
+                }
+                // the length ends the content, so adjacent entries cannot be confused
+                digest.update(ByteBuffer.allocate(8).putLong(length).array());
+            } else {
+                digest.update(DIRECTORY);
+            }
+        }
+        digest.update(END);
+    }
+}
@@ -23,11 +23,12 @@
 
 package org.jboss.arquillian.ce.utils;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Method;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.jar.Attributes;
 import java.util.jar.JarFile;
 import java.util.jar.Manifest;
@@ -41,6 +42,7 @@ import org.jboss.shrinkwrap.api.ArchivePaths;
 import org.jboss.shrinkwrap.api.Node;
 import org.jboss.shrinkwrap.api.ShrinkWrap;
 import org.jboss.shrinkwrap.api.asset.Asset;
+import org.jboss.shrinkwrap.api.asset.ByteArrayAsset;
 import org.jboss.shrinkwrap.api.asset.StringAsset;
 import org.jboss.shrinkwrap.api.container.ManifestContainer;
 import org.jboss.shrinkwrap.api.spec.EnterpriseArchive;
@@ -52,6 +54,8 @@ import org.jboss.shrinkwrap.api.spec.WebArchive;
 public class Archives {
     public static final String MGMT_CLIENT_JAR_NAME = "incontainermgmtclient.jar";
 
+    private static final int BUFFER_SIZE = 8192;
+
     private final static String WEB_XML =
         "<web-app version=\"3.0\"\n" +
             "         xmlns=\"http://java.sun.com/xml/ns/javaee\"\n" +
@@ -110,7 +114,7 @@ public class Archives {
             throw new IllegalArgumentException("ManifestContainer expected: " + archive);
         }
 
-        final Manifest manifest = getOrCreateManifest(archive);
+        Manifest manifest = getOrCreateManifest(archive);
         ManifestContainer manifestContainer = ManifestContainer.class.cast(archive);
 
         Attributes attributes = manifest.getMainAttributes();
@@ -129,17 +133,14 @@ public class Archives {
         // Add the manifest to the archive
         ArchivePath manifestPath = ArchivePaths.create(JarFile.MANIFEST_NAME);
         archive.delete(manifestPath);
-        manifestContainer.addAsManifestResource(new Asset() {
-            public InputStream openStream() {
-                try {
-                    ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                    manifest.write(baos);
-                    return new ByteArrayInputStream(baos.toByteArray());
-                } catch (IOException ex) {
-                    throw new IllegalStateException("Cannot write manifest", ex);
-                }
-            }
-        }, "MANIFEST.MF");
+        // serialized once, not on every openStream
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try {
+            manifest.write(baos);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Cannot write manifest", ex);
+        }
+        manifestContainer.addAsManifestResource(new ByteArrayAsset(baos.toByteArray()), "MANIFEST.MF");
     }
 
     private static Manifest getOrCreateManifest(Archive<?> archive) {
@@ -158,4 +159,47 @@ public class Archives {
             throw new IllegalStateException("Cannot obtain manifest", ex);
         }
     }
+
+    static byte[] read(Asset asset) throws IOException {
+        try (InputStream stream = asset.openStream()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int n;
+            while ((n = stream.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * @return hex SHA-256 hash of the asset's content
+     */
+    static String hash(Asset asset) throws IOException {
+        MessageDigest digest = sha256();
+        try (InputStream stream = asset.openStream()) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int n;
+            while ((n = stream.read(buffer)) != -1) {
+                digest.update(buffer, 0, n);
+            }
+        }
+        return hex(digest);
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String hex(MessageDigest digest) {
+        StringBuilder builder = new StringBuilder();
+        for (byte b : digest.digest()) {
+            builder.append(String.format("%02x", b));
+        }
+        return builder.toString();
+    }
 }
@@ -23,10 +23,17 @@
 
 package org.jboss.arquillian.ce.utils;
 
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 import javassist.util.proxy.MethodFilter;
 import javassist.util.proxy.MethodHandler;
@@ -35,6 +42,9 @@ import javassist.util.proxy.ProxyFactory;
 
 /**
  * Bytecode hacks.
+ * <p/>
+ * Generated proxy classes are cached per classloader (weakly) and proxy shape;
+ * interface-only proxies use java.lang.reflect.Proxy instead of generating a class.
  *
  * @author <a href="mailto:ales.justin@jboss.org">Ales Justin</a>
  */
@@ -46,6 +56,9 @@ public final class BytecodeUtils {
         }
     };
 
+    // classloader -> shape -> proxy class; the classes keep their loader alive, hence weak values as well
+    private static final Map<ClassLoader, Map<List<Object>, WeakReference<Class<?>>>> PROXY_CLASSES = new WeakHashMap<>();
+
     public static <T> T proxy(Class<T> expected, MethodHandler handler) {
         return proxy(expected, handler, null, null);
     }
@@ -67,19 +80,15 @@ public final class BytecodeUtils {
         if (handler == null)
             throw new IllegalArgumentException("Null method handler!");
 
-        final ProxyFactory factory = new InternalProxyFactory(expected.getClassLoader());
-        factory.setFilter(BytecodeUtils.FINALIZE_FILTER);
-        if (interfaces != null && interfaces.length > 0) {
-            factory.setInterfaces(interfaces);
-        }
-        if (superClass != null) {
-            factory.setSuperclass(superClass);
+        boolean noArgs = (paramTypes == null || paramTypes.length == 0);
+        if (superClass == null && interfaces != null && interfaces.length > 0 && noArgs) {
+            return expected.cast(java.lang.reflect.Proxy.newProxyInstance(getClassLoader(expected), interfaces, new HandlerAdapter(handler)));
         }
 
-        final Class<?> proxyClass = getProxyClass(factory);
+        final Class<?> proxyClass = getProxyClass(expected, interfaces, superClass);
         try {
             Proxy proxy;
-            if (paramTypes == null || paramTypes.length == 0) {
+            if (noArgs) {
                 proxy = (Proxy) proxyClass.newInstance();
             } else {
                 Constructor<?> ctor = proxyClass.getConstructor(paramTypes);
@@ -100,6 +109,69 @@ public final class BytecodeUtils {
         });
     }
 
+    private static Class<?> getProxyClass(Class<?> expected, Class<?>[] interfaces, Class<?> superClass) {
+        ClassLoader classLoader = getClassLoader(expected);
+        // by names, so the key doesn't keep the classes (and their loader) alive
+        List<Object> shape = Arrays.<Object>asList(
+            superClass != null ? superClass.getName() : null,
+            interfaces != null ? names(interfaces) : null,
+            FINALIZE_FILTER
+        );
+        synchronized (PROXY_CLASSES) {
+            Map<List<Object>, WeakReference<Class<?>>> classes = PROXY_CLASSES.get(classLoader);
+            if (classes == null) {
+                classes = new HashMap<>();
+                PROXY_CLASSES.put(classLoader, classes);
+            }
+            WeakReference<Class<?>> ref = classes.get(shape);
+            Class<?> proxyClass = (ref != null) ? ref.get() : null;
+            if (proxyClass == null || matches(proxyClass, interfaces, superClass) == false) {
+                ProxyFactory factory = new InternalProxyFactory(classLoader);
+                factory.setFilter(BytecodeUtils.FINALIZE_FILTER);
+                if (interfaces != null && interfaces.length > 0) {
+                    factory.setInterfaces(interfaces);
+                }
+                if (superClass != null) {
+                    factory.setSuperclass(superClass);
+                }
+                proxyClass = getProxyClass(factory);
+                classes.put(shape, new WeakReference<Class<?>>(proxyClass));
+            }
+            return proxyClass;
+        }
+    }
+
+    private static ClassLoader getClassLoader(Class<?> expected) {
+        ClassLoader classLoader = expected.getClassLoader();
+        // it's system classloader, so Shared should be fine
+        return (classLoader != null) ? classLoader : BytecodeUtils.class.getClassLoader();
+    }
+
+    private static List<String> names(Class<?>[] classes) {
+        String[] names = new String[classes.length];
+        for (int i = 0; i < classes.length; i++) {
+            names[i] = classes[i].getName();
+        }
+        return Arrays.asList(names);
+    }
+
+    /**
+     * Same names may still be different classes, e.g. loaded by different child loaders.
+     */
+    private static boolean matches(Class<?> proxyClass, Class<?>[] interfaces, Class<?> superClass) {
+        if (superClass != null && proxyClass.getSuperclass() != superClass) {
+            return false;
+        }
+        if (interfaces != null) {
+            for (Class<?> iface : interfaces) {
+                if (iface.isAssignableFrom(proxyClass) == false) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
     protected static Class<?> getProxyClass(ProxyFactory factory) {
         SecurityManager sm = System.getSecurityManager();
         if (sm == null)
@@ -123,6 +195,21 @@ public final class BytecodeUtils {
         }
     }
 
+    /**
+     * Invokes the method handler; interface methods have nothing to proceed to.
+     */
+    private static class HandlerAdapter implements InvocationHandler {
+        private final MethodHandler handler;
+
+        private HandlerAdapter(MethodHandler handler) {
+            this.handler = handler;
+        }
+
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            return handler.invoke(proxy, method, null, args != null ? args : new Object[0]);
+        }
+    }
+
     private static class InternalProxyFactory extends ProxyFactory {
         private final ClassLoader classLoader;
 
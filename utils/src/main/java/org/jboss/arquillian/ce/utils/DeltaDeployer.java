@@ -0,0 +1,329 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.arquillian.ce.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import org.jboss.arquillian.ce.adapter.OpenShiftAdapter;
+import org.jboss.arquillian.ce.api.ExecResult;
+import org.jboss.shrinkwrap.api.Archive;
+import org.jboss.shrinkwrap.api.ArchivePath;
+import org.jboss.shrinkwrap.api.Node;
+import org.jboss.shrinkwrap.api.asset.ArchiveAsset;
+import org.jboss.shrinkwrap.api.asset.Asset;
+
+/**
+ * Redeploys a changed archive by pushing only its changed entries into the running pods,
+ * as an exploded deployment in the deployments dir, followed by a .dodeploy marker.
+ * <p/>
+ * Entry hashes of the last push are remembered per pod and archive name;
+ * a pod seen for the first time gets the whole archive, replacing a packaged deployment of the same name.
+ * Nested archives, e.g. WEB-INF/lib jars, are pushed as (packaged) archives.
+ */
+public class DeltaDeployer {
+    private static final Logger log = Logger.getLogger(DeltaDeployer.class.getName());
+
+    private static final boolean ENABLED = Boolean.parseBoolean(Strings.getSystemPropertyOrEnvVar("arquillian.delta.deploy", "false"));
+    // deployment scanner dir of the EAP images
+    private static final String DEPLOYMENTS_DIR = Strings.getSystemPropertyOrEnvVar("arquillian.delta.deployments.dir", "/opt/eap/standalone/deployments");
+    private static final long TIMEOUT = Long.parseLong(Strings.getSystemPropertyOrEnvVar("arquillian.delta.deploy.timeout", "60")); // seconds
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final OpenShiftAdapter adapter;
+    private final String deploymentsDir;
+    private final Map<String, Map<String, String>> deployed = new ConcurrentHashMap<>(); // pod/archive -> entry hashes
+
+    public DeltaDeployer(OpenShiftAdapter adapter) {
+        this(adapter, DEPLOYMENTS_DIR);
+    }
+
+    public DeltaDeployer(OpenShiftAdapter adapter, String deploymentsDir) {
+        this.adapter = adapter;
+        this.deploymentsDir = deploymentsDir;
+    }
+
+    /**
+     * @return true if delta deploy mode is on
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Push the context's archive changes into all of its pods, and wait for the redeploy.
+     *
+     * @param context the deployment context
+     * @return number of changed (incl. removed) entries, over all pods
+     */
+    public int deploy(DeploymentContext context) throws Exception {
+        Archive<?> archive = context.getArchive();
+        Map<String, Entry> entries = entries(archive);
+        Map<String, String> hashes = new HashMap<>();
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            hashes.put(entry.getKey(), entry.getValue().hash);
+        }
+
+        List<String> pods = context.getProxy().getPodNames(context.getLabels());
+        if (pods.isEmpty()) {
+            throw new IllegalStateException("No such pods: " + context.getLabels());
+        }
+
+        int total = 0;
+        for (String pod : pods) {
+            String key = pod + "/" + archive.getName();
+            Map<String, String> previous = deployed.get(key);
+
+            List<Entry> changed = new ArrayList<>();
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                if (previous == null || entry.getValue().hash.equals(previous.get(entry.getKey())) == false) {
+                    changed.add(entry.getValue());
+                }
+            }
+            List<String> removed = new ArrayList<>();
+            if (previous != null) {
+                for (String name : previous.keySet()) {
+                    if (entries.containsKey(name) == false) {
+                        removed.add(name);
+                    }
+                }
+            }
+
+            if (changed.isEmpty() && removed.isEmpty()) {
+                log.info(String.format("No changes of %s to push into pod %s", archive.getName(), pod));
+                continue;
+            }
+            Timer timer = new Timer();
+            push(pod, archive.getName(), previous == null, changed, removed);
+            deployed.put(key, hashes);
+            total += changed.size() + removed.size();
+            log.info(String.format("Pushed %s changed and %s removed entries of %s into pod %s in %sms",
+                changed.size(), removed.size(), archive.getName(), pod, timer.elapsed() / 1000000L));
+        }
+        return total;
+    }
+
+    /**
+     * Forget what was pushed, so the next deploy pushes whole archives again.
+     */
+    public void reset() {
+        deployed.clear();
+    }
+
+    private void push(String pod, String name, boolean full, List<Entry> changed, List<String> removed) throws Exception {
+        // spooled, a first push is the whole archive
+        File tar = File.createTempFile("ce-arq-delta", ".tar");
+        try {
+            tar(changed, tar);
+            push(pod, name, full, tar, removed);
+        } finally {
+            Files.deleteIfExists(tar.toPath());
+        }
+    }
+
+    private void push(String pod, String name, boolean full, File tar, List<String> removed) throws Exception {
+        String dir = deploymentsDir + "/" + name;
+        StringBuilder script = new StringBuilder("set -e; ");
+        if (full) {
+            script.append("rm -rf ").append(quote(dir)).append("; ");
+        }
+        script.append("mkdir -p ").append(quote(dir)).append("; cd ").append(quote(dir)).append("; ");
+        for (String entry : removed) {
+            script.append("rm -rf ").append(quote(entry)).append("; ");
+        }
+        // exec doesn't propagate stdin EOF, hence the exact size
+        script.append("head -c ").append(tar.length()).append(" | tar xf -; ");
+        script.append("cd ").append(quote(deploymentsDir)).append("; ");
+        script.append("rm -f ").append(quote(name + ".failed")).append("; touch ").append(quote(name + ".dodeploy")).append("; ");
+        script.append("i=0; while [ -f ").append(quote(name + ".dodeploy")).append(" ] || [ -f ").append(quote(name + ".isdeploying")).append(" ]; do ");
+        script.append("i=$((i+1)); [ $i -gt ").append(TIMEOUT).append(" ] && exit 3; sleep 1; done; ");
+        script.append("[ ! -f ").append(quote(name + ".failed")).append(" ]");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        ExecResult result;
+        try (InputStream in = new BufferedInputStream(new FileInputStream(tar), BUFFER_SIZE)) {
+            result = adapter.exec(pod, in, out, err, TIMEOUT + 30, TimeUnit.SECONDS, "sh", "-c", script.toString());
+        }
+        if (result.getExitCode() != 0) {
+            throw new IllegalStateException(String.format("Delta deploy of %s into pod %s failed [%s]: %s", name, pod, result.getExitCode(), err));
+        }
+    }
+
+    private static String quote(String value) {
+        return "'" + value.replace("'", "'\\''") + "'";
+    }
+
+    /**
+     * @return entries by name (no leading slash, dirs end with a slash), sorted so parents precede children
+     */
+    private static Map<String, Entry> entries(Archive<?> archive) throws IOException {
+        Map<String, Entry> entries = new TreeMap<>();
+        for (Map.Entry<ArchivePath, Node> node : archive.getContent().entrySet()) {
+            String name = node.getKey().get().substring(1);
+            if (name.isEmpty()) {
+                continue;
+            }
+            Asset asset = node.getValue().getAsset();
+            Entry entry;
+            if (asset == null) {
+                entry = new Entry(name + "/", null, "dir");
+            } else if (asset instanceof ArchiveAsset) {
+                // hashed without exporting, exported only if pushed
+                entry = new Entry(name, asset, ArchiveExportCache.hash(((ArchiveAsset) asset).getArchive()));
+            } else {
+                entry = new Entry(name, asset, Archives.hash(asset));
+            }
+            entries.put(entry.name, entry);
+        }
+        return entries;
+    }
+
+    private static void tar(List<Entry> entries, File file) throws IOException {
+        try (OutputStream tar = new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE)) {
+            for (Entry entry : entries) {
+                if (entry.asset == null) {
+                    tar.write(header(entry.name, 0, '5'));
+                } else if (entry.asset instanceof ArchiveAsset) {
+                    // exported aside, its size precedes the content
+                    File nested = File.createTempFile("ce-arq-delta", ".zip");
+                    try {
+                        ParallelArchiveExporter.exportTo(((ArchiveAsset) entry.asset).getArchive(), nested);
+                        tar.write(header(entry.name, nested.length(), '0'));
+                        try (InputStream in = new FileInputStream(nested)) {
+                            copy(in, tar);
+                        }
+                        tar.write(new byte[pad(nested.length())]);
+                    } finally {
+                        Files.deleteIfExists(nested.toPath());
+                    }
+                } else {
+                    byte[] content = Archives.read(entry.asset);
+                    tar.write(header(entry.name, content.length, '0'));
+                    tar.write(content);
+                    tar.write(new byte[pad(content.length)]);
+                }
+            }
+            tar.write(new byte[1024]); // end of archive
+        }
+    }
+
+    private static void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+    }
+
+    /**
+     * ustar header; names longer than 100 bytes are split into prefix and name.
+     */
+    private static byte[] header(String name, long size, char type) {
+        byte[] header = new byte[512];
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        byte[] prefix = new byte[0];
+        if (bytes.length > 100) {
+            int split = name.lastIndexOf('/', name.length() - 2);
+            while (split > 0 && (name.substring(0, split).getBytes(StandardCharsets.UTF_8).length > 155
+                || name.substring(split + 1).getBytes(StandardCharsets.UTF_8).length > 100)) {
+                split = name.lastIndexOf('/', split - 1);
+            }
+            if (split <= 0) {
+                throw new IllegalArgumentException("Entry name too long for tar: " + name);
+            }
+            prefix = name.substring(0, split).getBytes(StandardCharsets.UTF_8);
+            bytes = name.substring(split + 1).getBytes(StandardCharsets.UTF_8);
+        }
+        System.arraycopy(bytes, 0, header, 0, bytes.length);
+        octal(header, 100, 8, type == '5' ? 0755 : 0644);
+        octal(header, 108, 8, 0);
+        octal(header, 116, 8, 0);
+        octal(header, 124, 12, size);
+        octal(header, 136, 12, System.currentTimeMillis() / 1000L);
+        header[156] = (byte) type;
+        System.arraycopy("ustar\u000000".getBytes(StandardCharsets.US_ASCII), 0, header, 257, 8);
+        System.arraycopy(prefix, 0, header, 345, prefix.length);
+
+        // checksum is computed with its own field as spaces
+        for (int i = 148; i < 156; i++) {
+            header[i] = ' ';
+        }
+        long checksum = 0;
+        for (byte b : header) {
+            checksum += b & 0xFF;
+        }
+        octal(header, 148, 7, checksum);
+        return header;
+    }
+
+    /**
+     * Zero padded octal, NUL terminated.
+     */
+    private static void octal(byte[] header, int offset, int length, long value) {
+        String octal = Long.toOctalString(value);
+        if (octal.length() > length - 1) {
+            throw new IllegalArgumentException(String.format("Value %s doesn't fit tar header field", value));
+        }
+        for (int i = 0; i < length - 1; i++) {
+            int p = i - (length - 1 - octal.length());
+            header[offset + i] = (byte) (p < 0 ? '0' : octal.charAt(p));
+        }
+        header[offset + length - 1] = 0;
+    }
+
+    private static int pad(long size) {
+        return (int) ((512 - (size % 512)) % 512);
+    }
+
+    private static class Entry {
+        private final String name;
+        private final Asset asset; // null for dirs
+        private final String hash;
+
+        private Entry(String name, Asset asset, String hash) {
+            this.name = name;
+            this.asset = asset;
+            this.hash = hash;
+        }
+    }
+}
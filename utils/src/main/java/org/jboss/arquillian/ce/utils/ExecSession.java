@@ -0,0 +1,204 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.arquillian.ce.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.arquillian.ce.api.ExecResult;
+
+/**
+ * Long-lived shell in a pod; commands are written to its stdin, one at a time,
+ * and framed with exit code markers on stdout and stderr.
+ */
+public abstract class ExecSession implements Closeable {
+    private static final Frame CLOSED = new Frame(null, ExecResult.UNKNOWN_EXIT_CODE);
+
+    private final String podName;
+    private final FrameOutputStream out = new FrameOutputStream();
+    private final FrameOutputStream err = new FrameOutputStream();
+    private volatile boolean closed;
+    private volatile boolean busy;
+    private final AtomicInteger leases = new AtomicInteger(); // -1 once evicted
+    private volatile long lastUsed = System.nanoTime();
+
+    protected ExecSession(String podName) {
+        this.podName = podName;
+    }
+
+    public String getPodName() {
+        return podName;
+    }
+
+    /**
+     * @return the sink for the shell's stdout
+     */
+    protected OutputStream getOutputSink() {
+        return out;
+    }
+
+    /**
+     * @return the sink for the shell's stderr
+     */
+    protected OutputStream getErrorSink() {
+        return err;
+    }
+
+    /**
+     * @return the shell's stdin
+     */
+    protected abstract OutputStream getInput();
+
+    /**
+     * Invoked once the shell is gone, waking up any waiting command.
+     */
+    protected void sessionClosed() {
+        if (closed == false) {
+            closed = true;
+            out.frames.offer(CLOSED);
+            err.frames.offer(CLOSED);
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * @return nanos since this session was last used, 0 while a command is running
+     */
+    public long getIdleTime() {
+        return busy ? 0 : System.nanoTime() - lastUsed;
+    }
+
+    /**
+     * Mark the session in use by the pool, so it isn't evicted before the caller gets to execute.
+     *
+     * @return false if the session was already evicted
+     */
+    boolean lease() {
+        while (true) {
+            int current = leases.get();
+            if (current < 0) {
+                return false;
+            }
+            if (leases.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void release() {
+        lastUsed = System.nanoTime();
+        leases.decrementAndGet();
+    }
+
+    /**
+     * @return true if the session was idle for too long and is now evicted, i.e. can no longer be leased
+     */
+    boolean evictIfIdle(long idleTimeout) {
+        return getIdleTime() > idleTimeout && leases.compareAndSet(0, -1);
+    }
+
+    /**
+     * Execute a shell command line; the session is closed on timeout, as the shell's state is then unknown.
+     */
+    public synchronized ExecResult execute(String commandLine, long timeout, TimeUnit unit) throws Exception {
+        if (closed) {
+            throw new IllegalStateException(String.format("Exec session to pod %s is closed", podName));
+        }
+        busy = true;
+        try {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            OutputStream input = getInput();
+            input.write(ExitCodeOutputStream.frame(commandLine).getBytes(StandardCharsets.UTF_8));
+            input.flush();
+
+            Frame stdout = await(out, deadline, commandLine);
+            Frame stderr = await(err, deadline, commandLine);
+            return new ExecResult(podName, stdout.exitCode, stdout.toString(), stderr.toString());
+        } catch (TimeoutException e) {
+            close();
+            throw e;
+        } finally {
+            lastUsed = System.nanoTime();
+            busy = false;
+        }
+    }
+
+    private Frame await(FrameOutputStream stream, long deadline, String commandLine) throws Exception {
+        Frame frame = stream.frames.poll(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+        if (frame == null) {
+            throw new TimeoutException(String.format("Command [%s] in pod %s didn't complete in time", commandLine, podName));
+        }
+        if (frame == CLOSED) {
+            stream.frames.offer(CLOSED); // keep it for any next waiter
+            throw new IllegalStateException(String.format("Exec session to pod %s closed while running [%s]", podName, commandLine));
+        }
+        return frame;
+    }
+
+    private static class Frame {
+        private final byte[] bytes;
+        private final int exitCode;
+
+        private Frame(byte[] bytes, int exitCode) {
+            this.bytes = bytes;
+            this.exitCode = exitCode;
+        }
+
+        @Override
+        public String toString() {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static class FrameOutputStream extends ExitCodeOutputStream {
+        private final ByteArrayOutputStream buffer;
+        private final BlockingQueue<Frame> frames = new LinkedBlockingQueue<>();
+
+        private FrameOutputStream() {
+            this(new ByteArrayOutputStream());
+        }
+
+        private FrameOutputStream(ByteArrayOutputStream buffer) {
+            super(buffer);
+            this.buffer = buffer;
+        }
+
+        @Override
+        protected void exited(int exitCode) throws IOException {
+            frames.offer(new Frame(buffer.toByteArray(), exitCode));
+            buffer.reset();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.arquillian.ce.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import org.jboss.arquillian.ce.api.ExecResult;
+
+/**
+ * Keeps one {@link ExecSession} per pod, so repeated commands don't each pay for a new exec connection.
+ * Sessions idle for longer than arquillian.exec.session.idle.timeout (seconds) are closed.
+ */
+public class ExecSessionPool implements Closeable {
+    private static final Logger log = Logger.getLogger(ExecSessionPool.class.getName());
+
+    private static final long IDLE_TIMEOUT = TimeUnit.SECONDS.toNanos(Long.parseLong(Strings.getSystemPropertyOrEnvVar("arquillian.exec.session.idle.timeout", "60")));
+
+    public interface Factory {
+        ExecSession create(String podName) throws Exception;
+    }
+
+    private final Factory factory;
+    private final ConcurrentMap<String, ExecSession> sessions = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService evictor;
+
+    public ExecSessionPool(Factory factory) {
+        this.factory = factory;
+        this.evictor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "ce-arq-exec-session-evictor");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        long period = Math.max(IDLE_TIMEOUT / 2, TimeUnit.SECONDS.toNanos(1));
+        evictor.scheduleWithFixedDelay(new Runnable() {
+            public void run() {
+                evictIdle();
+            }
+        }, period, period, TimeUnit.NANOSECONDS);
+    }
+
+    public ExecResult execute(String podName, String commandLine, long timeout, TimeUnit unit) throws Exception {
+        ExecSession session = getSession(podName);
+        try {
+            return session.execute(commandLine, timeout, unit);
+        } finally {
+            session.release();
+            if (session.isClosed()) {
+                sessions.remove(podName, session);
+            }
+        }
+    }
+
+    /**
+     * @return a leased session, which the caller must release
+     */
+    private ExecSession getSession(String podName) throws Exception {
+        ExecSession session = sessions.get(podName);
+        if (lease(session)) {
+            return session;
+        }
+        synchronized (this) {
+            session = sessions.get(podName);
+            if (lease(session) == false) {
+                log.info(String.format("Opening exec session to pod %s", podName));
+                session = factory.create(podName);
+                session.lease();
+                sessions.put(podName, session);
+            }
+            return session;
+        }
+    }
+
+    private static boolean lease(ExecSession session) {
+        if (session == null || session.lease() == false) {
+            return false;
+        }
+        if (session.isClosed()) {
+            session.release();
+            return false;
+        }
+        return true;
+    }
+
+    private void evictIdle() {
+        for (ExecSession session : sessions.values()) {
+            if (session.isClosed() || session.evictIfIdle(IDLE_TIMEOUT)) {
+                sessions.remove(session.getPodName(), session);
+                close(session);
+            }
+        }
+    }
+
+    private static void close(ExecSession session) {
+        try {
+            session.close();
+        } catch (IOException e) {
+            log.warning(String.format("Error closing exec session to pod %s: %s", session.getPodName(), e));
+        }
+    }
+
+    public void close() throws IOException {
+        evictor.shutdownNow();
+        for (ExecSession session : sessions.values()) {
+            close(session);
+        }
+        sessions.clear();
+    }
+}
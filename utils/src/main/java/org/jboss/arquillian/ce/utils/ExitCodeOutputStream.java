@@ -0,0 +1,166 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.arquillian.ce.utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.jboss.arquillian.ce.api.ExecResult;
+
+/**
+ * Exec over the pod API doesn't report the exit code, so the command is wrapped
+ * to print it with a marker at the end of stderr; this stream strips the marker again.
+ */
+public class ExitCodeOutputStream extends OutputStream {
+    private static final String MARKER = "\n#ce-arq-exit:";
+    private static final byte[] MARKER_BYTES = MARKER.getBytes(StandardCharsets.US_ASCII);
+
+    private final OutputStream delegate;
+    private int matched;
+    private StringBuilder code;
+    private volatile int exitCode = ExecResult.UNKNOWN_EXIT_CODE;
+
+    /**
+     * @param delegate the real stderr, may be null
+     */
+    public ExitCodeOutputStream(OutputStream delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Wrap the command so it reports its exit code on stderr.
+     */
+    public static String[] wrap(String... command) {
+        String[] wrapped = new String[command.length + 4];
+        wrapped[0] = "sh";
+        wrapped[1] = "-c";
+        wrapped[2] = "\"$@\"; printf '\\n" + MARKER.substring(1) + "%d\\n' $? >&2";
+        wrapped[3] = "sh";
+        System.arraycopy(command, 0, wrapped, 4, command.length);
+        return wrapped;
+    }
+
+    /**
+     * Frame a shell command line, so the shell reports its exit code on both, stdout and stderr.
+     * Used for commands written to a long-lived shell's stdin.
+     */
+    public static String frame(String commandLine) {
+        String print = "printf '\\n" + MARKER.substring(1) + "%d\\n' $__ce_arq_rc";
+        return "{ " + commandLine + "\n} < /dev/null; __ce_arq_rc=$?; " + print + "; " + print + " >&2\n";
+    }
+
+    public int getExitCode() {
+        return exitCode;
+    }
+
+    /**
+     * Invoked once an exit code was read, all previous output belongs to the exited command.
+     */
+    protected void exited(int exitCode) throws IOException {
+    }
+
+    @Override
+    public synchronized void write(int b) throws IOException {
+        if (code != null) {
+            if (b == '\n') {
+                int parsed = ExecResult.UNKNOWN_EXIT_CODE;
+                try {
+                    parsed = Integer.parseInt(code.toString());
+                } catch (NumberFormatException ignored) {
+                }
+                code = null;
+                exitCode = parsed;
+                exited(parsed);
+            } else {
+                code.append((char) b);
+            }
+            return;
+        }
+
+        if (b == MARKER_BYTES[matched]) {
+            matched++;
+            if (matched == MARKER_BYTES.length) {
+                matched = 0;
+                code = new StringBuilder();
+            }
+            return;
+        }
+
+        // not the marker after all, write what we held back
+        if (matched > 0) {
+            doWrite(MARKER_BYTES, 0, matched);
+            matched = 0;
+            if (b == MARKER_BYTES[0]) {
+                matched = 1;
+                return;
+            }
+        }
+        if (delegate != null) {
+            delegate.write(b);
+        }
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) throws IOException {
+        int end = off + len;
+        int i = off;
+        while (i < end) {
+            if (code == null && matched == 0) {
+                // pass through everything up to a possible marker start
+                int start = i;
+                while (i < end && b[i] != MARKER_BYTES[0]) {
+                    i++;
+                }
+                doWrite(b, start, i - start);
+                if (i == end) {
+                    break;
+                }
+            }
+            write(b[i++]);
+        }
+    }
+
+    private void doWrite(byte[] b, int off, int len) throws IOException {
+        if (delegate != null) {
+            delegate.write(b, off, len);
+        }
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        if (delegate != null) {
+            delegate.flush();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (matched > 0) {
+            doWrite(MARKER_BYTES, 0, matched);
+            matched = 0;
+        }
+        flush();
+    }
+}
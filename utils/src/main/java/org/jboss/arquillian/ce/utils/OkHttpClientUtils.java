@@ -23,17 +23,11 @@
 
 package org.jboss.arquillian.ce.utils;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
-import okhttp3.Cookie;
-import okhttp3.CookieJar;
-import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
+import org.jboss.arquillian.ce.metrics.ApiMetrics;
+import org.jboss.arquillian.ce.metrics.ApiMetricsInterceptor;
 
 /**
  * Handle OkHttpClient.
@@ -41,8 +35,6 @@ import okhttp3.OkHttpClient;
  * @author <a href="mailto:ales.justin@jboss.org">Ales Justin</a>
  */
 public class OkHttpClientUtils {
-    private static final SimpleCookieJar COOKIE_JAR = new SimpleCookieJar();
-
     public static void applyConnectTimeout(OkHttpClient.Builder builder, long timeout) {
         //Increasing timeout to avoid this issue:
         //Caused by: io.fabric8.kubernetes.client.KubernetesClientException: Error executing: GET at:
@@ -50,43 +42,17 @@ public class OkHttpClientUtils {
         builder.connectTimeout(timeout, TimeUnit.SECONDS);
     }
 
+    /**
+     * Each client gets its own jar, so proxies don't share (or reset) each other's cookies.
+     */
     public static void applyCookieJar(OkHttpClient.Builder builder) {
-        COOKIE_JAR.clear(); // reset
-        builder.cookieJar(COOKIE_JAR);
+        builder.cookieJar(new PathCookieJar());
     }
 
     /**
-     * Just copy cookies based on proxy path.
+     * Record all calls made by clients built from this builder.
      */
-    private static class SimpleCookieJar implements CookieJar {
-        private static final String _PROXY = "/proxy";
-        private Map<String, List<Cookie>> cookiesMap = new ConcurrentHashMap<>();
-
-        private void clear() {
-            cookiesMap.clear();
-        }
-
-        private static String path(HttpUrl url) {
-            String path = url.encodedPath();
-            int p = path.indexOf(_PROXY);
-            return path.substring(p + _PROXY.length());
-        }
-
-        public synchronized void saveFromResponse(HttpUrl url, List<Cookie> cookies) {
-            cookiesMap.put(path(url), cookies);
-        }
-
-        public synchronized List<Cookie> loadForRequest(HttpUrl url) {
-            String path = path(url);
-            List<Cookie> list = new ArrayList<>();
-            for (Map.Entry<String, List<Cookie>> entry : cookiesMap.entrySet()) {
-                if (path.startsWith(entry.getKey())) {
-                    for (Cookie cookie : entry.getValue()) {
-                        list.add(cookie);
-                    }
-                }
-            }
-            return list.isEmpty() ? Collections.<Cookie>emptyList() : list;
-        }
+    public static void applyApiMetrics(OkHttpClient.Builder builder, ApiMetrics metrics) {
+        builder.addInterceptor(new ApiMetricsInterceptor(metrics));
     }
 }
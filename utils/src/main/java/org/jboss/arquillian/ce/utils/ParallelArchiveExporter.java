@@ -0,0 +1,503 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.arquillian.ce.utils;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import org.jboss.shrinkwrap.api.Archive;
+import org.jboss.shrinkwrap.api.ArchivePath;
+import org.jboss.shrinkwrap.api.Node;
+import org.jboss.shrinkwrap.api.asset.ArchiveAsset;
+import org.jboss.shrinkwrap.api.asset.Asset;
+import org.jboss.shrinkwrap.api.exporter.ZipExporter;
+
+/**
+ * Exports archives as ZIP, compressing entries in parallel on a fork-join pool,
+ * while writing them in order straight to the target stream.
+ * Only a bounded window of entries is in flight; nested archives and other already
+ * compressed entries (by extension, or if deflating doesn't help) are STORED, not compressed again.
+ * Nested archives and compressed entries are spooled through temp files, not held in memory.
+ * <p/>
+ * ZIP64 is not written: archives over 4GB or 65535 entries are exported with ShrinkWrap's
+ * {@link ZipExporter} instead, when exporting to a file.
+ */
+public class ParallelArchiveExporter {
+    private static final Logger log = Logger.getLogger(ParallelArchiveExporter.class.getName());
+
+    private static final int THREADS = Integer.parseInt(Strings.getSystemPropertyOrEnvVar("arquillian.export.threads", String.valueOf(Runtime.getRuntime().availableProcessors())));
+    private static final int WINDOW = Math.max(2, 2 * THREADS); // entries in flight
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(Math.max(THREADS, 1));
+
+    private static final Set<String> COMPRESSED = new HashSet<>(Arrays.asList(
+        "jar", "war", "ear", "rar", "sar", "zip", "gz", "tgz", "bz2", "xz", "png", "jpg", "jpeg", "gif", "woff", "woff2"
+    ));
+
+    private static final String MANIFEST_DIR = "META-INF/";
+    private static final String MANIFEST = "META-INF/MANIFEST.MF";
+
+    private static final int STORED = 0;
+    private static final int DEFLATED = 8;
+    private static final int VERSION = 20;
+    private static final int UTF8_FLAG = 0x0800;
+    private static final int DIRECTORY_ATTRIBUTE = 0x10;
+    private static final long MAX_SIZE = 0xFFFFFFFFL;
+    private static final int MAX_ENTRIES = 0xFFFF;
+
+    private ParallelArchiveExporter() {
+    }
+
+    /**
+     * Export the archive, falling back to {@link ZipExporter} if it exceeds the plain ZIP limits.
+     */
+    public static void exportTo(Archive<?> archive, File file) throws IOException {
+        try (OutputStream out = new FileOutputStream(file)) {
+            exportTo(archive, out);
+            return;
+        } catch (ZipLimitException e) {
+            log.info(String.format("%s, exporting %s with ZipExporter", e.getMessage(), archive.getName()));
+        }
+        archive.as(ZipExporter.class).exportTo(file, true);
+    }
+
+    /**
+     * Export the archive; the stream is not closed.
+     *
+     * @throws ZipLimitException if the archive exceeds 4GB or 65535 entries
+     */
+    public static void exportTo(Archive<?> archive, OutputStream out) throws IOException {
+        List<Item> items = items(archive);
+        if (items.size() > MAX_ENTRIES) {
+            throw new ZipLimitException(String.format("More than %s entries", MAX_ENTRIES));
+        }
+        ZipWriter writer = new ZipWriter(new BufferedOutputStream(out, BUFFER_SIZE));
+        Deque<ExportTask> window = new ArrayDeque<>();
+        try {
+            for (Item item : items) {
+                window.addLast(submit(item.name, item.node));
+                if (window.size() >= WINDOW) {
+                    writer.write(get(window.removeFirst().future));
+                }
+            }
+            while (window.isEmpty() == false) {
+                writer.write(get(window.removeFirst().future));
+            }
+            writer.finish();
+        } finally {
+            for (ExportTask task : window) {
+                task.discard();
+            }
+        }
+    }
+
+    /**
+     * Signals an archive needing ZIP64.
+     */
+    public static class ZipLimitException extends IOException {
+        private ZipLimitException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * @return entry names and nodes, manifest first (as JarInputStream expects it)
+     */
+    private static List<Item> items(Archive<?> archive) {
+        List<Item> items = new ArrayList<>();
+        for (Map.Entry<ArchivePath, Node> entry : archive.getContent().entrySet()) {
+            String name = entry.getKey().get().substring(1); // no leading slash
+            if (name.isEmpty()) {
+                continue;
+            }
+            Node node = entry.getValue();
+            if (node.getAsset() == null) {
+                name += "/";
+            }
+            items.add(new Item(name, node));
+        }
+        Collections.sort(items, new Comparator<Item>() { // stable, the rest keeps the archive's order
+            public int compare(Item i1, Item i2) {
+                return rank(i1.name) - rank(i2.name);
+            }
+        });
+        return items;
+    }
+
+    private static int rank(String name) {
+        if (MANIFEST_DIR.equals(name)) {
+            return 0;
+        }
+        return MANIFEST.equals(name) ? 1 : 2;
+    }
+
+    private static ExportTask submit(String name, Node node) {
+        ExportTask task = new ExportTask(name, node.getAsset());
+        if (task.asset == null) {
+            task.future = done(new Entry(name, STORED, new byte[0], 0, 0, 0));
+        } else {
+            // nested exports run on the pool too; a worker waiting on nested entries helps run them (fork-join)
+            task.future = POOL.submit(task);
+        }
+        return task;
+    }
+
+    private static Entry get(Future<Entry> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted exporting archive", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IllegalStateException("Cannot export archive entry", cause);
+        }
+    }
+
+    private static Future<Entry> done(final Entry entry) {
+        FutureTask<Entry> task = new FutureTask<>(new Callable<Entry>() {
+            public Entry call() {
+                return entry;
+            }
+        });
+        task.run();
+        return task;
+    }
+
+    private static boolean isCompressed(String name) {
+        int p = name.lastIndexOf('.');
+        return p >= 0 && COMPRESSED.contains(name.substring(p + 1).toLowerCase(Locale.ENGLISH));
+    }
+
+    private static Entry nested(String name, Archive<?> archive) throws IOException {
+        File file = File.createTempFile("ce-arq-export", ".zip");
+        try {
+            try (OutputStream out = new FileOutputStream(file)) {
+                exportTo(archive, out);
+            }
+            try (InputStream in = new FileInputStream(file)) {
+                return spooled(name, in, file);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file.toPath());
+            throw e;
+        }
+    }
+
+    private static Entry spooled(String name, Asset asset) throws IOException {
+        File file = File.createTempFile("ce-arq-export", ".tmp");
+        try {
+            try (InputStream in = asset.openStream(); OutputStream out = new FileOutputStream(file)) {
+                copy(in, out);
+            }
+            try (InputStream in = new FileInputStream(file)) {
+                return spooled(name, in, file);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file.toPath());
+            throw e;
+        }
+    }
+
+    /**
+     * STORED entry of the temp file, its CRC computed from the stream.
+     */
+    private static Entry spooled(String name, InputStream in, File file) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long size = 0;
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            crc.update(buffer, 0, n);
+            size += n;
+        }
+        return new Entry(name, file, crc.getValue(), size);
+    }
+
+    private static void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+    }
+
+    private static Entry stored(String name, byte[] bytes) {
+        return new Entry(name, STORED, bytes, crc(bytes), bytes.length, bytes.length);
+    }
+
+    private static Entry deflated(String name, byte[] bytes) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, bytes.length / 2));
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (deflater.finished() == false) {
+                int n = deflater.deflate(buffer);
+                out.write(buffer, 0, n);
+            }
+            byte[] compressed = out.toByteArray();
+            if (compressed.length >= bytes.length) {
+                return stored(name, bytes);
+            }
+            return new Entry(name, DEFLATED, compressed, crc(bytes), compressed.length, bytes.length);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static long crc(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+
+    private static class Item {
+        private final String name;
+        private final Node node;
+
+        private Item(String name, Node node) {
+            this.name = name;
+            this.node = node;
+        }
+    }
+
+    /**
+     * Exports an entry; once discarded, it deletes the temp file of an entry it still completes,
+     * as cancelling doesn't stop a running fork-join task.
+     */
+    private static class ExportTask implements Callable<Entry> {
+        private final String name;
+        private final Asset asset;
+        private Future<Entry> future;
+        private Entry entry;
+        private boolean discarded;
+
+        private ExportTask(String name, Asset asset) {
+            this.name = name;
+            this.asset = asset;
+        }
+
+        public Entry call() throws Exception {
+            Entry result = export();
+            synchronized (this) {
+                if (discarded == false) {
+                    entry = result;
+                    return result;
+                }
+            }
+            result.delete();
+            return result;
+        }
+
+        private Entry export() throws IOException {
+            if (asset instanceof ArchiveAsset) {
+                return nested(name, ((ArchiveAsset) asset).getArchive());
+            }
+            if (isCompressed(name)) {
+                return spooled(name, asset);
+            }
+            return deflated(name, Archives.read(asset));
+        }
+
+        /**
+         * Drop the entry, which won't be written, incl. its temp file.
+         */
+        private void discard() {
+            future.cancel(true);
+            Entry result;
+            synchronized (this) {
+                discarded = true;
+                result = entry;
+            }
+            if (result != null) {
+                try {
+                    result.delete();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    private static class Entry {
+        private final String name;
+        private final int method;
+        private final byte[] data;
+        private final File file; // STORED content spooled to disk, instead of data
+        private final long crc;
+        private final long compressedSize;
+        private final long size;
+
+        private Entry(String name, int method, byte[] data, long crc, long compressedSize, long size) {
+            this(name, method, data, null, crc, compressedSize, size);
+        }
+
+        private Entry(String name, File file, long crc, long size) {
+            this(name, STORED, null, file, crc, size, size);
+        }
+
+        private Entry(String name, int method, byte[] data, File file, long crc, long compressedSize, long size) {
+            this.name = name;
+            this.method = method;
+            this.data = data;
+            this.file = file;
+            this.crc = crc;
+            this.compressedSize = compressedSize;
+            this.size = size;
+        }
+
+        private void delete() throws IOException {
+            if (file != null) {
+                Files.deleteIfExists(file.toPath());
+            }
+        }
+    }
+
+    /**
+     * Writes local headers with known sizes (no data descriptors), then the central directory.
+     */
+    private static class ZipWriter {
+        private final OutputStream out;
+        private final List<byte[]> central = new ArrayList<>();
+        private final int time;
+        private final int date;
+        private long offset;
+        private long centralSize;
+
+        private ZipWriter(OutputStream out) {
+            this.out = out;
+            Calendar now = Calendar.getInstance();
+            this.time = (now.get(Calendar.HOUR_OF_DAY) << 11) | (now.get(Calendar.MINUTE) << 5) | (now.get(Calendar.SECOND) >> 1);
+            this.date = ((now.get(Calendar.YEAR) - 1980) << 9) | ((now.get(Calendar.MONTH) + 1) << 5) | now.get(Calendar.DAY_OF_MONTH);
+        }
+
+        private void write(Entry entry) throws IOException {
+            try {
+                doWrite(entry);
+            } finally {
+                entry.delete();
+            }
+        }
+
+        private void doWrite(Entry entry) throws IOException {
+            byte[] name = entry.name.getBytes(StandardCharsets.UTF_8);
+            if (offset + 30 + name.length + entry.compressedSize > MAX_SIZE) {
+                throw new ZipLimitException("Archive larger than 4GB");
+            }
+
+            Bytes local = new Bytes(30 + name.length);
+            local.int4(0x04034b50).int2(VERSION).int2(UTF8_FLAG).int2(entry.method).int2(time).int2(date);
+            local.int4(entry.crc).int4(entry.compressedSize).int4(entry.size).int2(name.length).int2(0).bytes(name);
+
+            Bytes header = new Bytes(46 + name.length);
+            header.int4(0x02014b50).int2(VERSION).int2(VERSION).int2(UTF8_FLAG).int2(entry.method).int2(time).int2(date);
+            header.int4(entry.crc).int4(entry.compressedSize).int4(entry.size).int2(name.length).int2(0).int2(0);
+            header.int2(0).int2(0).int4(entry.name.endsWith("/") ? DIRECTORY_ATTRIBUTE : 0).int4(offset).bytes(name);
+            central.add(header.array);
+            centralSize += header.array.length;
+
+            out.write(local.array);
+            if (entry.file != null) {
+                try (InputStream in = new FileInputStream(entry.file)) {
+                    copy(in, out);
+                }
+            } else {
+                out.write(entry.data, 0, (int) entry.compressedSize);
+            }
+            offset += local.array.length + entry.compressedSize;
+        }
+
+        private void finish() throws IOException {
+            for (byte[] header : central) {
+                out.write(header);
+            }
+            Bytes end = new Bytes(22);
+            end.int4(0x06054b50).int2(0).int2(0).int2(central.size()).int2(central.size()).int4(centralSize).int4(offset).int2(0);
+            out.write(end.array);
+            out.flush();
+        }
+    }
+
+    /**
+     * Little-endian ZIP record.
+     */
+    private static class Bytes {
+        private final byte[] array;
+        private int position;
+
+        private Bytes(int size) {
+            array = new byte[size];
+        }
+
+        private Bytes int2(int value) {
+            array[position++] = (byte) value;
+            array[position++] = (byte) (value >>> 8);
+            return this;
+        }
+
+        private Bytes int4(long value) {
+            int2((int) (value & 0xFFFF));
+            return int2((int) ((value >>> 16) & 0xFFFF));
+        }
+
+        private Bytes bytes(byte[] bytes) {
+            System.arraycopy(bytes, 0, array, position, bytes.length);
+            position += bytes.length;
+            return this;
+        }
+    }
+}
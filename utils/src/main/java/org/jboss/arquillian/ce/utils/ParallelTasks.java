@@ -0,0 +1,109 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.arquillian.ce.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Logger;
+
+/**
+ * Runs a batch of tasks on short-lived daemon threads.
+ */
+public final class ParallelTasks {
+    private static final Logger log = Logger.getLogger(ParallelTasks.class.getName());
+
+    private ParallelTasks() {
+    }
+
+    /**
+     * Run the tasks on up to threads threads, or in order on the caller's thread if threads is 1 or less.
+     * All tasks are completed before the first failure is rethrown; further failures are only logged.
+     *
+     * @param name    the tasks' name, used in thread names and logs
+     * @param threads max number of threads
+     * @param tasks   the tasks
+     * @return the results, in tasks' order
+     */
+    public static <T> List<T> run(final String name, int threads, List<? extends Callable<T>> tasks) throws Exception {
+        List<T> results = new ArrayList<>(tasks.size());
+        Throwable failure = null;
+        if (threads <= 1 || tasks.size() <= 1) {
+            for (Callable<T> task : tasks) {
+                try {
+                    results.add(task.call());
+                } catch (Throwable t) {
+                    failure = failed(name, failure, t);
+                    results.add(null);
+                }
+            }
+        } else {
+            ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, tasks.size()), new ThreadFactory() {
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "ce-arq-" + name);
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            try {
+                List<Future<T>> futures = new ArrayList<>();
+                for (Callable<T> task : tasks) {
+                    futures.add(executor.submit(task));
+                }
+                for (Future<T> future : futures) {
+                    try {
+                        results.add(future.get());
+                    } catch (ExecutionException e) {
+                        failure = failed(name, failure, e.getCause());
+                        results.add(null);
+                    }
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        if (failure instanceof Exception) {
+            throw (Exception) failure;
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
+        } else if (failure != null) {
+            throw new IllegalStateException(failure);
+        }
+        return results;
+    }
+
+    private static Throwable failed(String name, Throwable failure, Throwable t) {
+        if (failure == null) {
+            return t;
+        }
+        log.warning(String.format("Another %s task failed as well: %s", name, t));
+        return failure;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2017 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.arquillian.ce.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import okhttp3.Cookie;
+import okhttp3.CookieJar;
+import okhttp3.HttpUrl;
+
+/**
+ * Just copy cookies based on proxy path.
+ * <p/>
+ * Cookies are stored in a trie keyed by the path behind the pod proxy, so a lookup
+ * collects all cookies stored for any prefix of the request path in O(path length).
+ * Reads are lock-free, writes are copy-on-write; one jar is used per proxy client.
+ */
+public class PathCookieJar implements CookieJar {
+    private static final String _PROXY = "/proxy";
+
+    private volatile Node root = new Node();
+
+    public void clear() {
+        root = new Node();
+    }
+
+    private static String path(HttpUrl url) {
+        String path = url.encodedPath();
+        int p = path.indexOf(_PROXY);
+        return path.substring(p + _PROXY.length());
+    }
+
+    public void saveFromResponse(HttpUrl url, List<Cookie> cookies) {
+        String path = path(url);
+        List<Cookie> copy = Collections.unmodifiableList(new ArrayList<>(cookies));
+        synchronized (this) {
+            Node node = root;
+            for (int i = 0; i < path.length(); i++) {
+                node = node.getOrCreate(path.charAt(i));
+            }
+            node.cookies = copy;
+        }
+    }
+
+    public List<Cookie> loadForRequest(HttpUrl url) {
+        String path = path(url);
+        List<Cookie> list = null;
+        Node node = root;
+        int i = 0;
+        while (node != null) {
+            List<Cookie> cookies = node.cookies;
+            if (cookies != null && cookies.isEmpty() == false) {
+                if (list == null) {
+                    list = new ArrayList<>();
+                }
+                list.addAll(cookies);
+            }
+            node = (i < path.length()) ? node.children.get(path.charAt(i++)) : null;
+        }
+        return list == null ? Collections.<Cookie>emptyList() : list;
+    }
+
+    private static class Node {
+        private volatile Map<Character, Node> children = Collections.emptyMap();
+        private volatile List<Cookie> cookies;
+
+        // called under jar's lock
+        private Node getOrCreate(char ch) {
+            Node child = children.get(ch);
+            if (child == null) {
+                child = new Node();
+                Map<Character, Node> copy = new HashMap<>(children);
+                copy.put(ch, child);
+                children = copy;
+            }
+            return child;
+        }
+    }
+}
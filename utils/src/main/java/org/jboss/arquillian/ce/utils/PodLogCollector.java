@@ -0,0 +1,134 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.arquillian.ce.utils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
+
+import org.jboss.arquillian.ce.adapter.OpenShiftAdapter;
+
+/**
+ * Collects logs of all pods matching labels, in parallel, gzipped to disk.
+ * Only a fixed size buffer per pod is held in memory, regardless of the log size.
+ */
+public class PodLogCollector {
+    private static final Logger log = Logger.getLogger(PodLogCollector.class.getName());
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final String LOGS_DIR = Strings.getSystemPropertyOrEnvVar("arquillian.logs.dir", "target/ce-arq-logs");
+    private static final int THREADS = Integer.parseInt(Strings.getSystemPropertyOrEnvVar("arquillian.logs.threads", "4"));
+    private static final long TIMEOUT = Long.parseLong(Strings.getSystemPropertyOrEnvVar("arquillian.logs.timeout", "60")); // seconds
+
+    private final OpenShiftAdapter adapter;
+
+    public PodLogCollector(OpenShiftAdapter adapter) {
+        this.adapter = adapter;
+    }
+
+    /**
+     * Collect the logs.
+     *
+     * @param name   the sub-directory name, e.g. test class name
+     * @param labels the pod labels
+     * @return written log files
+     */
+    public List<File> collect(String name, Map<String, String> labels) throws Exception {
+        List<String> pods = adapter.getProxy().getPodNames(labels);
+        if (pods.isEmpty()) {
+            log.info(String.format("No pods matching %s, no logs to collect.", labels));
+            return new ArrayList<>();
+        }
+
+        final File dir = new File(LOGS_DIR, name);
+        if (dir.exists() == false && dir.mkdirs() == false) {
+            throw new IOException(String.format("Cannot create logs dir: %s", dir));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(pods.size(), Math.max(THREADS, 1)), new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "ce-arq-logs");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        try {
+            List<Future<File>> futures = new ArrayList<>();
+            for (final String pod : pods) {
+                futures.add(executor.submit(new Callable<File>() {
+                    public File call() throws Exception {
+                        return collect(dir, pod);
+                    }
+                }));
+            }
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT);
+            List<File> files = new ArrayList<>();
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    files.add(futures.get(i).get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS));
+                } catch (ExecutionException e) {
+                    log.warning(String.format("Cannot collect log of pod %s: %s", pods.get(i), e.getCause()));
+                } catch (TimeoutException e) {
+                    log.warning(String.format("Timeout collecting log of pod %s", pods.get(i)));
+                }
+            }
+            log.info(String.format("Collected %s pod log(s) into %s", files.size(), dir.getAbsolutePath()));
+            return files;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private File collect(File dir, String pod) throws Exception {
+        File file = new File(dir, pod + ".log.gz");
+        try (InputStream in = adapter.dumpLog(pod); OutputStream out = new GZIPOutputStream(new FileOutputStream(file), BUFFER_SIZE)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedException(String.format("Interrupted collecting log of pod %s", pod));
+                }
+                out.write(buffer, 0, n);
+            }
+        }
+        return file;
+    }
+}
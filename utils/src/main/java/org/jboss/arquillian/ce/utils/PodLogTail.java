@@ -0,0 +1,231 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.arquillian.ce.utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+import org.jboss.arquillian.ce.adapter.OpenShiftAdapter;
+import org.jboss.arquillian.ce.api.LogTail;
+
+/**
+ * Follows pod logs via {@link OpenShiftAdapter#streamLog(String)}, one reader thread per pod,
+ * each pod keeping a bounded ring buffer of its last lines.
+ * Waiters are woken up on every new line, so nothing is polled or downloaded twice.
+ */
+public class PodLogTail implements LogTail {
+    private static final Logger log = Logger.getLogger(PodLogTail.class.getName());
+
+    private final OpenShiftAdapter adapter;
+    private final Map<String, String> labels;
+    private final int maxLines;
+    private final Map<String, PodTail> tails = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    public PodLogTail(OpenShiftAdapter adapter, Map<String, String> labels, int maxLines) throws Exception {
+        if (maxLines <= 0) {
+            throw new IllegalArgumentException("Max lines must be positive: " + maxLines);
+        }
+        this.adapter = adapter;
+        this.labels = labels;
+        this.maxLines = maxLines;
+        refresh();
+    }
+
+    public synchronized void refresh() throws Exception {
+        if (closed) {
+            throw new IllegalStateException("Log tail is closed!");
+        }
+        for (String pod : adapter.getProxy().getPodNames(labels)) {
+            if (tails.containsKey(pod) == false) {
+                PodTail tail = new PodTail(pod, adapter.streamLog(pod));
+                tails.put(pod, tail);
+                tail.start();
+            }
+        }
+    }
+
+    public Set<String> getPods() {
+        return new TreeSet<>(tails.keySet());
+    }
+
+    public List<String> getLines(String podName) {
+        return getTail(podName).getLines();
+    }
+
+    public String awaitMatch(String podName, Pattern pattern, long timeout, TimeUnit unit) throws Exception {
+        return getTail(podName).await(pattern, System.nanoTime() + unit.toNanos(timeout));
+    }
+
+    public Map<String, String> awaitMatchInAll(Pattern pattern, long timeout, TimeUnit unit) throws Exception {
+        if (tails.isEmpty()) {
+            throw new IllegalStateException("No such pods: " + labels);
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        Map<String, String> matches = new TreeMap<>();
+        for (PodTail tail : tails.values()) {
+            matches.put(tail.pod, tail.await(pattern, deadline));
+        }
+        return matches;
+    }
+
+    public synchronized void close() throws IOException {
+        closed = true;
+        for (PodTail tail : tails.values()) {
+            tail.close();
+        }
+        tails.clear();
+    }
+
+    private PodTail getTail(String podName) {
+        PodTail tail = tails.get(podName);
+        if (tail == null) {
+            throw new IllegalArgumentException(String.format("No such pod followed: %s, pods: %s", podName, tails.keySet()));
+        }
+        return tail;
+    }
+
+    private class PodTail implements Runnable {
+        private final String pod;
+        private final InputStream stream;
+        private final Thread thread;
+
+        private final ArrayDeque<String> lines = new ArrayDeque<>();
+        private final List<Waiter> waiters = new ArrayList<>();
+        private boolean ended;
+
+        private PodTail(String pod, InputStream stream) {
+            this.pod = pod;
+            this.stream = stream;
+            this.thread = new Thread(this, "ce-arq-log-tail-" + pod);
+            this.thread.setDaemon(true);
+        }
+
+        private void start() {
+            thread.start();
+        }
+
+        public void run() {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    append(line);
+                }
+            } catch (IOException e) {
+                if (closed == false) {
+                    log.warning(String.format("Error following log of pod %s: %s", pod, e));
+                }
+            } finally {
+                end();
+            }
+        }
+
+        private synchronized void append(String line) {
+            if (lines.size() == maxLines) {
+                lines.removeFirst();
+            }
+            lines.addLast(line);
+            // matched here, so a waiter can't miss lines dropped from the buffer before it wakes up
+            boolean matched = false;
+            for (Waiter waiter : waiters) {
+                if (waiter.match == null && waiter.pattern.matcher(line).find()) {
+                    waiter.match = line;
+                    matched = true;
+                }
+            }
+            if (matched) {
+                notifyAll();
+            }
+        }
+
+        private synchronized void end() {
+            ended = true;
+            notifyAll();
+        }
+
+        private synchronized List<String> getLines() {
+            return Collections.unmodifiableList(new ArrayList<>(lines));
+        }
+
+        private synchronized String await(Pattern pattern, long deadline) throws Exception {
+            for (String line : lines) {
+                if (pattern.matcher(line).find()) {
+                    return line;
+                }
+            }
+
+            // newer lines are matched by append()
+            Waiter waiter = new Waiter(pattern);
+            waiters.add(waiter);
+            try {
+                while (waiter.match == null) {
+                    if (ended) {
+                        throw new IllegalStateException(String.format("Log of pod %s ended without matching %s", pod, pattern));
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        throw new TimeoutException(String.format("No line of pod %s matched %s in time", pod, pattern));
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                }
+                return waiter.match;
+            } finally {
+                waiters.remove(waiter);
+            }
+        }
+
+        private void close() {
+            try {
+                stream.close();
+            } catch (IOException ignored) {
+            }
+            thread.interrupt();
+        }
+    }
+
+    private static class Waiter {
+        private final Pattern pattern;
+        private String match; // guarded by the pod tail
+
+        private Waiter(Pattern pattern) {
+            this.pattern = pattern;
+        }
+    }
+}
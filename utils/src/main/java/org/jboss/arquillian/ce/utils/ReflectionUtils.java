@@ -24,17 +24,35 @@
 package org.jboss.arquillian.ce.utils;
 
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.jboss.arquillian.container.test.api.Deployment;
 
 /**
+ * Lookups are cached per class, see {@link ClassInfo}.
+ *
  * @author <a href="mailto:ales.justin@jboss.org">Ales Justin</a>
  */
 public class ReflectionUtils {
+    private static final ClassValue<ClassInfo> CLASS_INFO = new ClassValue<ClassInfo>() {
+        protected ClassInfo computeValue(Class<?> type) {
+            return new ClassInfo();
+        }
+    };
+
+    private static final Object NONE = new Object(); // no annotation
+
     public static Method findDeploymentMethod(Class<?> clazz) {
         List<Method> methods = findDeploymentMethods(clazz);
         return (methods.size() == 0) ? null : methods.iterator().next();
@@ -57,6 +75,22 @@ public class ReflectionUtils {
             return;
         }
 
+        ConcurrentMap<Class<?>, List<Method>> cache = CLASS_INFO.get(clazz).annotatedMethods;
+        List<Method> methods = cache.get(annotationClass);
+        if (methods == null) {
+            methods = new ArrayList<>();
+            scanAnnotatedMethods(clazz, annotationClass, methods);
+            methods = Collections.unmodifiableList(methods);
+            cache.putIfAbsent(annotationClass, methods);
+        }
+        list.addAll(methods);
+    }
+
+    private static void scanAnnotatedMethods(Class<?> clazz, Class<? extends Annotation> annotationClass, List<Method> list) {
+        if (clazz == Object.class) {
+            return;
+        }
+
         Method[] methods = clazz.getMethods();
         for (Method m : methods) {
             if (Modifier.isStatic(m.getModifiers()) && m.isAnnotationPresent(annotationClass) && getParameterCount(m) == 0 && !m.isBridge()) {
@@ -64,7 +98,7 @@ public class ReflectionUtils {
             }
         }
 
-        findAnnotatedMethods(clazz.getSuperclass(), annotationClass, list);
+        scanAnnotatedMethods(clazz.getSuperclass(), annotationClass, list);
     }
 
     public static <T extends Annotation> T findAnnotation(Class<?> clazz, Class<T> annotationClass) {
@@ -72,30 +106,80 @@ public class ReflectionUtils {
             return null;
         }
 
-        T annotation = clazz.getAnnotation(annotationClass);
-        if (annotation != null) {
-            return annotation;
-        } else {
-            return findAnnotation(clazz.getSuperclass(), annotationClass);
+        ConcurrentMap<Class<?>, Object> cache = CLASS_INFO.get(clazz).annotations;
+        Object annotation = cache.get(annotationClass);
+        if (annotation == null) {
+            annotation = clazz.getAnnotation(annotationClass);
+            if (annotation == null) {
+                annotation = findAnnotation(clazz.getSuperclass(), annotationClass);
+            }
+            cache.putIfAbsent(annotationClass, annotation != null ? annotation : NONE);
         }
+        return (annotation != NONE) ? annotationClass.cast(annotation) : null;
     }
 
     public static boolean isAnnotationPresent(Class<?> clazz, Class<? extends Annotation> annotationClass) {
-        return clazz != Object.class && (clazz.isAnnotationPresent(annotationClass) || isAnnotationPresent(clazz.getSuperclass(), annotationClass));
-
+        return findAnnotation(clazz, annotationClass) != null;
     }
 
     public static <T> T invoke(Class<?> clazz, String methodName, Class<?>[] parameterTypes, Object instance, Object[] args, Class<T> returnType) {
+        MethodHandle invoker = getInvoker(clazz, methodName, parameterTypes);
+        Object[] arguments = (args != null) ? args : new Object[0];
+        Object result;
         try {
-            Method method = clazz.getDeclaredMethod(methodName, parameterTypes);
-            method.setAccessible(true);
-            return returnType.cast(method.invoke(instance, args));
-        } catch (Exception e) {
+            result = (Object) invoker.invokeExact(instance, arguments);
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable t) {
+            // wrapped as Method.invoke's failures used to be
+            throw new IllegalStateException(new InvocationTargetException(t));
+        }
+        try {
+            return returnType.cast(result);
+        } catch (ClassCastException e) {
             throw new IllegalStateException(e);
         }
     }
 
+    /**
+     * @return (Object instance, Object[] args) Object invoker of the declared method
+     */
+    private static MethodHandle getInvoker(Class<?> clazz, String methodName, Class<?>[] parameterTypes) {
+        ConcurrentMap<List<Object>, MethodHandle> cache = CLASS_INFO.get(clazz).invokers;
+        List<Object> key = new ArrayList<>(parameterTypes.length + 1);
+        key.add(methodName);
+        key.addAll(Arrays.asList(parameterTypes));
+        MethodHandle invoker = cache.get(key);
+        if (invoker == null) {
+            try {
+                Method method = clazz.getDeclaredMethod(methodName, parameterTypes);
+                method.setAccessible(true);
+                MethodHandle handle = MethodHandles.lookup().unreflect(method);
+                if (Modifier.isStatic(method.getModifiers())) {
+                    handle = MethodHandles.dropArguments(handle, 0, Object.class);
+                }
+                invoker = handle
+                    .asType(MethodType.genericMethodType(parameterTypes.length + 1))
+                    .asSpreader(Object[].class, parameterTypes.length);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            cache.putIfAbsent(key, invoker);
+        }
+        return invoker;
+    }
+
     private static int getParameterCount(Method method) {
         return method.getParameterTypes().length; // use method.getParameterCount() on Java8
     }
+
+    /**
+     * Per class: annotated methods and annotations (incl. superclasses'), and invokers of declared methods.
+     * Held in a ClassValue, so it goes away with the class.
+     */
+    private static class ClassInfo {
+        private final ConcurrentMap<Class<?>, List<Method>> annotatedMethods = new ConcurrentHashMap<>();
+        private final ConcurrentMap<Class<?>, Object> annotations = new ConcurrentHashMap<>();
+        private final ConcurrentMap<List<Object>, MethodHandle> invokers = new ConcurrentHashMap<>();
+    }
 }
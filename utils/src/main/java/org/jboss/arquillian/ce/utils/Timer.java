@@ -23,8 +23,10 @@
 
 package org.jboss.arquillian.ce.utils;
 
+import java.util.concurrent.TimeUnit;
+
 /**
- * Timer
+ * Timer, on the monotonic clock.
  *
  * @author <a href="mailto:ales.justin@jboss.org">Ales Justin</a>
  */
@@ -36,12 +38,29 @@ public class Timer {
     }
 
     public void reset() {
-        start = System.currentTimeMillis();
+        start = System.nanoTime();
+    }
+
+    /**
+     * @return elapsed time since the start, in ns
+     */
+    public long elapsed() {
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * @return elapsed time since the start, in ns; and start over
+     */
+    public long lap() {
+        long now = System.nanoTime();
+        long elapsed = now - start;
+        start = now;
+        return elapsed;
     }
 
     @Override
     public String toString() {
-        long time = (System.currentTimeMillis() - start) / 1000L;
+        long time = TimeUnit.NANOSECONDS.toSeconds(elapsed());
         long min = time / 60L;
         long sec = time - (60L * min);
         return String.format("%smin %ss", min, sec);